@@ -0,0 +1,94 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.samskivert.mustache.Mustache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.ft.common.FileUtils.readFile;
+
+/**
+ * Compares evaluating every field extraction path of {@link InternalComponentsMapper} by compiling it from its
+ * string form (as the mapper used to do) against evaluating the precompiled expressions of
+ * {@link InternalComponentsMapper#XPATHS}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternalComponentsMapperXPathBenchmark {
+
+    private Document valueDocument;
+    private Document attributesDocument;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Object> valuePlaceholders = new HashMap<>();
+        valuePlaceholders.put("contentPackage", true);
+        valuePlaceholders.put("summary", true);
+        valuePlaceholders.put("displayPosition", "auto");
+
+        Map<String, Object> attributesPlaceholders = new HashMap<>();
+        attributesPlaceholders.put("sourceCode", "FT");
+        attributesPlaceholders.put("isContentPackage", "true");
+        attributesPlaceholders.put("designTheme", "extra");
+        attributesPlaceholders.put("pushNotificationsCohort", "UK_breaking_news");
+
+        String value = Mustache.compiler().escapeHTML(false)
+                .compile(readFile("article/article_with_all_components.xml.mustache"))
+                .execute(valuePlaceholders);
+        String attributes = Mustache.compiler().escapeHTML(false)
+                .compile(readFile("article/article_attributes.xml.mustache"))
+                .execute(attributesPlaceholders);
+
+        valueDocument = parse(value);
+        attributesDocument = parse(attributes);
+    }
+
+    @Benchmark
+    public void compileOnEveryEvaluation(Blackhole blackhole) throws Exception {
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        for (String expression : InternalComponentsMapper.XPATHS.getExpressions()) {
+            blackhole.consume(xpath.evaluate(expression, documentFor(expression)));
+        }
+    }
+
+    @Benchmark
+    public void precompiledExpressions(Blackhole blackhole) throws Exception {
+        for (String expression : InternalComponentsMapper.XPATHS.getExpressions()) {
+            blackhole.consume(InternalComponentsMapper.XPATHS.evaluate(expression, documentFor(expression)));
+        }
+    }
+
+    private Document documentFor(String expression) {
+        return expression.startsWith("ObjectMetadata") || expression.startsWith("/ObjectMetadata")
+                ? attributesDocument
+                : valueDocument;
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.DefaultTransactionIdBodyProcessingContext;
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.sun.jersey.api.client.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the links of a data-heavy synthetic article, with 300 links to content in the Document Store and 100
+ * company tags, against clients that answer from memory, so that the cost of matching the responses to the tags
+ * is what is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkResolutionBenchmark {
+
+    private static final int LINKS = 300;
+    private static final int COMPANIES = 100;
+    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+
+    private MethodeLinksBodyProcessor linksBodyProcessor;
+    private TearSheetLinksTransformer tearSheetLinksTransformer;
+    private String linksBody;
+    private String companiesBody;
+    private Document companiesDocument;
+    private NodeList companies;
+
+    @Setup
+    public void setUp() {
+        List<Content> content = new ArrayList<>();
+        StringBuilder links = new StringBuilder("<body>");
+        for (int i = 0; i < LINKS; i++) {
+            String uuid = UUID.nameUUIDFromBytes(("link-" + i).getBytes()).toString();
+            content.add(new Content(uuid, "Article"));
+            links.append("<p>See <a href=\"http://www.ft.com/content/").append(uuid).append("\">story ").append(i)
+                    .append("</a></p>");
+        }
+        linksBody = links.append("</body>").toString();
+
+        List<Concordance> concordances = new ArrayList<>();
+        StringBuilder tags = new StringBuilder("<body>");
+        for (int i = 0; i < COMPANIES; i++) {
+            String tmeId = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X" + i + "=-T04=";
+            String conceptUuid = UUID.nameUUIDFromBytes(("company-" + i).getBytes()).toString();
+            concordances.add(new Concordance(
+                    new ConceptView("http://api.ft.com/things/" + conceptUuid, "http://api.ft.com/organisations/" + conceptUuid),
+                    new Identifier(TME_AUTHORITY, tmeId)));
+            tags.append("<p><company CompositeId=\"").append(tmeId).append("\">Company ").append(i)
+                    .append("</company></p>");
+        }
+        companiesBody = tags.append("</body>").toString();
+
+        linksBodyProcessor = new MethodeLinksBodyProcessor(new InMemoryDocumentStoreApiClient(content),
+                "https://www.ft.com/content/%s");
+        tearSheetLinksTransformer = new TearSheetLinksTransformer(new InMemoryConcordanceApiClient(concordances));
+    }
+
+    @Setup(Level.Invocation)
+    public void parseCompanies() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        companiesDocument = factory.newDocumentBuilder().parse(new InputSource(new StringReader(companiesBody)));
+        companies = companiesDocument.getElementsByTagName("company");
+    }
+
+    @Benchmark
+    public String processLinks() {
+        return linksBodyProcessor.process(linksBody, new DefaultTransactionIdBodyProcessingContext("tid_benchmark"));
+    }
+
+    @Benchmark
+    public Document transformTearSheetLinks() {
+        tearSheetLinksTransformer.handle(companiesDocument, companies);
+        return companiesDocument;
+    }
+
+    private static class InMemoryDocumentStoreApiClient extends DocumentStoreApiClient {
+
+        private final List<Content> content;
+
+        InMemoryDocumentStoreApiClient(List<Content> content) {
+            super(Client.create(), "localhost", 8080, "document-store-api");
+            this.content = content;
+        }
+
+        @Override
+        public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+            return content;
+        }
+    }
+
+    private static class InMemoryConcordanceApiClient extends ConcordanceApiClient {
+
+        private final Concordances concordances;
+
+        InMemoryConcordanceApiClient(List<Concordance> concordances) {
+            super(null, "localhost", 8080, "/concordances", "public-concordances-api");
+            this.concordances = new Concordances(concordances);
+        }
+
+        @Override
+        public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+            return concordances;
+        }
+    }
+}
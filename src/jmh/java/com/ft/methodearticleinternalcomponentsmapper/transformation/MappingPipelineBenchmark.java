@@ -0,0 +1,261 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.html.Html5SelfClosingTagBodyProcessor;
+import com.ft.bodyprocessing.richcontent.VideoMatcher;
+import com.ft.bodyprocessing.richcontent.VideoSiteConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
+import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
+import com.samskivert.mustache.Mustache;
+import com.sun.jersey.api.client.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static com.ft.common.FileUtils.readFile;
+
+/**
+ * Runs the whole mapping pipeline, {@link InternalComponentsMapper#map(EomFile, String, Date, boolean)} with the
+ * real body processor chain, and the body transformer on its own, over a corpus of representative EomFiles: a plain
+ * article, a content package, dynamic content with blocks, a content placeholder and a long read of about 200 KB.
+ * <p>
+ * The remote services answer from memory, so only the local work is measured. Throughput and latency percentiles
+ * are reported for each document; the allocation rate is reported by the GC profiler, which the {@code jmh} profile
+ * enables by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingPipelineBenchmark {
+
+    private static final String TRANSACTION_ID = "tid_benchmark";
+    private static final String UUID_OF_DOCUMENT = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String ORIGINAL_UUID = "1a4e5f34-2bf6-11e8-9b4b-bc4b9f08f381";
+    private static final int LONG_READ_BYTES = 200 * 1024;
+
+    private static final List<VideoSiteConfiguration> VIDEO_CONFIGS = Arrays.asList(
+            new VideoSiteConfiguration("https?://www.youtube.com/watch\\?v=(?<id>[A-Za-z0-9_-]+)", "https://www.youtube.com/watch?v=%s", true, Collections.singletonList("t"), null, true),
+            new VideoSiteConfiguration("https?://www.vimeo.com/(?<id>[0-9]+)", null, false, Collections.emptyList(), null, true)
+    );
+    private static final List<String> INTERACTIVE_GRAPHICS_RULES = Arrays.asList(
+            "http://interactive.ftdata.co.uk/(?!(_other/ben/twitter)|(widgets/audio)).*",
+            "http://(www.)?ft.com/ig/(?!widgets/widgetBrowser/audio).*",
+            "http://ig.ft.com/features.*",
+            "http://ft.cartodb.com/.*"
+    );
+
+    @Param({"plain-article", "content-package", "dynamic-content", "content-placeholder", "long-read"})
+    private String document;
+
+    private InternalComponentsMapper internalComponentsMapper;
+    private FieldTransformer bodyTransformer;
+    private EomFile eomFile;
+    private String body;
+    private Date lastModified;
+
+    @Setup
+    public void setUp() throws Exception {
+        DocumentStoreApiClient documentStoreApiClient = new InMemoryDocumentStoreApiClient();
+        bodyTransformer = new BodyProcessingFieldTransformerFactory(documentStoreApiClient,
+                new VideoMatcher(VIDEO_CONFIGS),
+                new InteractiveGraphicsMatcher(INTERACTIVE_GRAPHICS_RULES),
+                contentTypeTemplates(),
+                "api.ft.com",
+                new InMemoryConcordanceApiClient(),
+                "https://www.ft.com/content/%s").newInstance();
+
+        MethodeArticleValidator validator = new AlwaysValidArticleValidator();
+        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT, validator);
+        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, validator);
+        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, validator);
+
+        internalComponentsMapper = new InternalComponentsMapper(bodyTransformer,
+                new Html5SelfClosingTagBodyProcessor(),
+                new BlogUuidResolver(new MetricRegistry(), documentStoreApiClient, "http://api.ft.com/system/FT-LABS-WP-1-", Collections.emptyMap()),
+                documentStoreApiClient,
+                articleValidators,
+                "api.ft.com");
+
+        body = body(document);
+        eomFile = eomFile(document, body);
+        lastModified = new Date();
+    }
+
+    @Benchmark
+    public InternalComponents map() {
+        return internalComponentsMapper.map(eomFile, TRANSACTION_ID, lastModified, false);
+    }
+
+    @Benchmark
+    public String transformBody() {
+        return bodyTransformer.transform(body, TRANSACTION_ID);
+    }
+
+    private static String body(String document) throws Exception {
+        String kitchenSink = readFile("body/kitchen_sink_article_body.xml").trim();
+        if (!"long-read".equals(document)) {
+            return kitchenSink;
+        }
+
+        String paragraphs = kitchenSink.substring("<body>".length(), kitchenSink.length() - "</body>".length());
+        StringBuilder longRead = new StringBuilder("<body>");
+        while (longRead.length() < LONG_READ_BYTES) {
+            longRead.append(paragraphs);
+        }
+        return longRead.append("</body>").toString();
+    }
+
+    private static EomFile eomFile(String document, String body) throws Exception {
+        Map<String, Object> value = new HashMap<>();
+        value.put("summary", true);
+        value.put("displayPosition", "auto");
+        value.put("leadImageSet", true);
+        value.put("squareImageUUID", UUID.randomUUID().toString());
+        value.put("standardImageUUID", UUID.randomUUID().toString());
+        value.put("wideImageUUID", UUID.randomUUID().toString());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("sourceCode", InternalComponentsMapper.SourceCode.FT);
+        attributes.put("isContentPackage", "false");
+
+        switch (document) {
+            case "content-package":
+                value.put("contentPackage", true);
+                value.put("contentPackageNext", "Coming soon");
+                value.put("tableOfContentsSequence", "exact-order");
+                value.put("tableOfContentsLabelType", "part-number");
+                attributes.put("isContentPackage", "true");
+                attributes.put("designTheme", "extra");
+                break;
+            case "dynamic-content":
+                value.put("blocks", true);
+                for (int i = 1; i <= 3; i++) {
+                    value.put("block-" + i, true);
+                    value.put("block-name-" + i, "block-" + i);
+                    value.put("block-html-value-" + i, "<p>Block " + i + " with <b>markup</b> and a "
+                            + "<a href=\"http://www.ft.com/cms/s/2/e78a8668-c997-11e1-aae2-002128161462.html\">link</a></p>");
+                }
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT);
+                break;
+            case "content-placeholder":
+                attributes.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+                attributes.put("originalUUID", ORIGINAL_UUID);
+                break;
+            case "long-read":
+                value.put("topper", true);
+                value.put("topperHeadline", "A long read");
+                value.put("topperStandfirst", "With a standfirst");
+                value.put("topperBackgroundColour", "paper");
+                value.put("topperLayout", "full-bleed-offset");
+                break;
+            default:
+                break;
+        }
+
+        String renderedValue = Mustache.compiler().escapeHTML(false)
+                .compile(readFile("article/article_with_all_components.xml.mustache"))
+                .execute(value)
+                .replaceFirst("(?s)<body>.*</body>", Matcher.quoteReplacement(body));
+        String renderedAttributes = Mustache.compiler().escapeHTML(false)
+                .compile(readFile("article/article_attributes.xml.mustache"))
+                .execute(attributes);
+
+        return new EomFile.Builder()
+                .withUuid(UUID_OF_DOCUMENT)
+                .withType("EOM::CompoundStory")
+                .withValue(renderedValue.getBytes(StandardCharsets.UTF_8))
+                .withAttributes(renderedAttributes)
+                .withWorkflowStatus("Stories/WebReady")
+                .build();
+    }
+
+    private static Map<String, String> contentTypeTemplates() {
+        Map<String, String> contentTypeTemplates = new HashMap<>();
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/Article", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/ImageSet", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/MediaResource", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/Video", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/company/PublicCompany", "/organisations/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/ContentPackage", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/Content", "/content/{{id}}");
+        contentTypeTemplates.put("http://www.ft.com/ontology/content/Image", "/content/{{id}}");
+        return contentTypeTemplates;
+    }
+
+    private static class InMemoryDocumentStoreApiClient extends DocumentStoreApiClient {
+
+        InMemoryDocumentStoreApiClient() {
+            super(Client.create(), "localhost", 8080, "document-store-api");
+        }
+
+        @Override
+        public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+            return uuids.stream().map(uuid -> new Content(uuid, "Article")).collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean isUUIDPresent(String uuid, String transactionId) {
+            return true;
+        }
+
+        @Override
+        public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+            return ORIGINAL_UUID;
+        }
+    }
+
+    private static class InMemoryConcordanceApiClient extends ConcordanceApiClient {
+
+        InMemoryConcordanceApiClient() {
+            super(null, "localhost", 8080, "/concordances", "public-concordances-api");
+        }
+
+        @Override
+        public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+            return new Concordances(Collections.emptyList());
+        }
+    }
+
+    private static class AlwaysValidArticleValidator extends MethodeArticleValidator {
+
+        AlwaysValidArticleValidator() {
+            super(null, null, null);
+        }
+
+        @Override
+        public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+            return PublishingStatus.VALID;
+        }
+    }
+}
@@ -13,23 +13,36 @@ import com.ft.message.consumer.MessageListener;
 import com.ft.message.consumer.MessageQueueConsumerInitializer;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messagequeueproducer.QueueProxyProducer;
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingConcordanceApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.CachingDocumentStoreApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
+import com.ft.methodearticleinternalcomponentsmapper.clients.RemoteCallTimingFilter;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.BatchMappingConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.BatchingConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ConnectionConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ConsumerConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.DeduplicationConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.MethodeArticleInternalComponentsMapperConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.ParallelMappingConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.ProducerConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.configuration.UppServiceConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.health.CanConnectToMessageQueueProducerProxyHealthcheck;
 import com.ft.methodearticleinternalcomponentsmapper.health.RemoteServiceHealthCheck;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.ContentChangeListener;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.MessageBuilder;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.MessageProducingInternalComponentsMapper;
 import com.ft.methodearticleinternalcomponentsmapper.messaging.NativeCmsPublicationEventsListener;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.PartitionedExecutor;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.PublishEventDeduplicator;
 import com.ft.methodearticleinternalcomponentsmapper.resources.MapResource;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.BodyProcessingFieldTransformerFactory;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InteractiveGraphicsMatcher;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.BlogUuidResolver;
+import com.ft.methodearticleinternalcomponentsmapper.validation.CachingMethodeArticleValidator;
 import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
 import com.ft.platform.dropwizard.AdvancedHealthCheck;
 import com.ft.platform.dropwizard.AdvancedHealthCheckBundle;
@@ -49,9 +62,20 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class MethodeArticleInternalComponentsMapperApplication extends Application<MethodeArticleInternalComponentsMapperConfiguration> {
 
+    private static final long MAPPING_EXECUTOR_SHUTDOWN_TIMEOUT_MILLIS = 30000;
+    private static final long PRODUCER_SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    /** Every endpoint that reads the transaction ID of its request, which the filter supplies when a caller has not. */
+    static final String[] TRANSACTION_ID_URL_PATTERNS = {"/map", "/map/batch"};
+
     public static void main(final String[] args) throws Exception {
         new MethodeArticleInternalComponentsMapperApplication().run(args);
     }
@@ -69,7 +93,7 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .info("JVM file.encoding = {}", System.getProperty("file.encoding"));
 
         environment.servlets().addFilter("transactionIdFilter", new TransactionIdFilter())
-                .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/map");
+                .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, TRANSACTION_ID_URL_PATTERNS);
 
         BuildInfoResource buildInfoResource = new BuildInfoResource();
         environment.jersey().register(buildInfoResource);
@@ -104,8 +128,17 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 .port(mcpmEndpointConfiguration.getPort())
                 .build();
 
-        DocumentStoreApiClient documentStoreApiClient = new DocumentStoreApiClient(configuration.getDocumentStoreApiConfiguration(), environment);
-        ConcordanceApiClient concordanceApiClient = new ConcordanceApiClient(configuration.getConcordanceApiConfiguration(), environment);
+        DocumentStoreApiClient documentStoreApiClient = configuration.getDocumentStoreApiCacheConfiguration() == null
+                ? new DocumentStoreApiClient(configuration.getDocumentStoreApiConfiguration(), environment)
+                : new CachingDocumentStoreApiClient(configuration.getDocumentStoreApiConfiguration(), configuration.getDocumentStoreApiCacheConfiguration(), environment);
+        ConcordanceApiClient concordanceApiClient = configuration.getConcordanceApiCacheConfiguration() == null
+                ? new ConcordanceApiClient(configuration.getConcordanceApiConfiguration(), environment)
+                : new CachingConcordanceApiClient(configuration.getConcordanceApiConfiguration(), configuration.getConcordanceApiCacheConfiguration(), environment);
+
+        timeRemoteCalls(mamClient, "methode-article-mapper", environment);
+        timeRemoteCalls(mcpmClient, "methode-content-placeholder-mapper", environment);
+        timeRemoteCalls(documentStoreApiClient.getJerseyClient(), "document-store-api", environment);
+        timeRemoteCalls(concordanceApiClient.getJerseyClient(), "concordance-api", environment);
 
         BlogUuidResolver blogUuidResolver = new BlogUuidResolver(
                 environment.metrics(),
@@ -113,10 +146,11 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 configuration.getValidationConfiguration().getAuthorityPrefix(),
                 configuration.getValidationConfiguration().getBrandIdMappings());
 
+        MethodeArticleValidator mamValidator = buildArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader(), configuration, environment);
         Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
-        articleValidators.put(InternalComponentsMapper.SourceCode.FT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
-        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, new MethodeArticleValidator(mcpmClient, mcpmUri, mcpmConfiguration.getHostHeader()));
-        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, new MethodeArticleValidator(mamClient, mamUri, mamConfiguration.getHostHeader()));
+        articleValidators.put(InternalComponentsMapper.SourceCode.FT, mamValidator);
+        articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, buildArticleValidator(mcpmClient, mcpmUri, mcpmConfiguration.getHostHeader(), configuration, environment));
+        articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, mamValidator);
         InternalComponentsMapper eomFileProcessor = new InternalComponentsMapper(
                 new BodyProcessingFieldTransformerFactory(documentStoreApiClient,
                         new VideoMatcher(configuration.getVideoSiteConfig()),
@@ -124,13 +158,15 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                         configuration.getContentTypeTemplates(),
                         configuration.getApiHost(),
                         concordanceApiClient,
-                        configuration.getCanonicalUrlTemplate()
+                        configuration.getCanonicalUrlTemplate(),
+                        environment.metrics()
                 ).newInstance(),
                 new Html5SelfClosingTagBodyProcessor(),
                 blogUuidResolver,
                 documentStoreApiClient,
                 articleValidators,
-                configuration.getApiHost()
+                configuration.getApiHost(),
+                buildRemoteCallsExecutor(configuration.getParallelMappingConfiguration(), environment)
         );
 
         ConsumerConfiguration consumerConfig = configuration.getConsumerConfiguration();
@@ -138,12 +174,15 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 new MessageProducingInternalComponentsMapper(
                         getMessageBuilder(configuration, environment),
                         configureMessageProducer(configuration.getProducerConfiguration(), environment),
-                        eomFileProcessor
+                        eomFileProcessor,
+                        buildPublishEventDeduplicator(configuration.getDeduplicationConfiguration(), environment)
                 );
         MessageListener listener = new NativeCmsPublicationEventsListener(
                 environment.getObjectMapper(),
                 msgProducingListMapper,
-                consumerConfig.getSystemCode()
+                consumerConfig.getSystemCode(),
+                buildMappingExecutor(configuration.getParallelMappingConfiguration(), environment),
+                documentStoreApiClient instanceof ContentChangeListener ? (ContentChangeListener) documentStoreApiClient : null
         );
         registerListener(
                 environment, listener, consumerConfig,
@@ -162,10 +201,77 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 healthchecks
         );
 
-        environment.jersey().register(new MapResource(eomFileProcessor));
+        BatchMappingConfiguration batchMappingConfig = configuration.getBatchMappingConfiguration();
+        environment.jersey().register(new MapResource(
+                eomFileProcessor,
+                environment.getObjectMapper(),
+                buildBatchMappingExecutor(batchMappingConfig, environment),
+                batchMappingConfig == null ? 1 : batchMappingConfig.getMaxItemsInFlight()
+        ));
         environment.jersey().register(RuntimeExceptionMapper.class);
     }
 
+    private MethodeArticleValidator buildArticleValidator(Client client, URI uri, String hostHeader,
+                                                          MethodeArticleInternalComponentsMapperConfiguration configuration,
+                                                          Environment environment) {
+        CacheConfiguration cacheConfiguration = configuration.getPublishingStatusCacheConfiguration();
+        if (cacheConfiguration == null) {
+            return new MethodeArticleValidator(client, uri, hostHeader);
+        }
+        return new CachingMethodeArticleValidator(client, uri, hostHeader, cacheConfiguration, environment.metrics());
+    }
+
+    private void timeRemoteCalls(Client client, String service, Environment environment) {
+        client.addFilter(new RemoteCallTimingFilter(environment.metrics(), service));
+    }
+
+    private PublishEventDeduplicator buildPublishEventDeduplicator(DeduplicationConfiguration config, Environment environment) {
+        if (config == null) {
+            return null;
+        }
+        return new PublishEventDeduplicator(config, environment.metrics());
+    }
+
+    private ExecutorService buildBatchMappingExecutor(BatchMappingConfiguration config, Environment environment) {
+        if (config == null || config.getThreads() < 1) {
+            return null;
+        }
+        // the queue is shared by every batch being mapped, so once it is full an item is mapped on the thread of the
+        // request submitting it, which stops that request reading any further until the pool catches up
+        return environment.lifecycle().executorService("map-batch-%d")
+                .minThreads(config.getThreads())
+                .maxThreads(config.getThreads())
+                .workQueue(new ArrayBlockingQueue<Runnable>(Math.max(1, config.getMaxItemsInFlight())))
+                .rejectedExecutionHandler(new CallerRunsUntilShutdown())
+                .build();
+    }
+
+    private ExecutorService buildRemoteCallsExecutor(ParallelMappingConfiguration config, Environment environment) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        return environment.lifecycle().executorService("mapper-remote-calls-%d")
+                .minThreads(config.getRemoteCallThreads())
+                .maxThreads(config.getRemoteCallThreads())
+                .build();
+    }
+
+    private PartitionedExecutor buildMappingExecutor(ParallelMappingConfiguration config, Environment environment) {
+        if (config == null || !config.isEnabled() || config.getConsumerWorkers() < 1) {
+            return null;
+        }
+        long shutdownTimeoutMillis = config.getConsumerWorkerShutdownTimeoutMillis() > 0
+                ? config.getConsumerWorkerShutdownTimeoutMillis()
+                : MAPPING_EXECUTOR_SHUTDOWN_TIMEOUT_MILLIS;
+        PartitionedExecutor executor = new PartitionedExecutor("mapper-consumer-worker-%d",
+                config.getConsumerWorkers(),
+                Math.max(1, config.getConsumerWorkerQueueSize()),
+                shutdownTimeoutMillis);
+        // managed before the consumer, so that it is stopped after it and can finish the messages already queued
+        environment.lifecycle().manage(executor);
+        return executor;
+    }
+
     private Client configureResilientClient(
             Environment environment,
             EndpointConfiguration endpointConfiguration,
@@ -294,7 +400,21 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
 
         registerProducerHealthCheck(environment, config, queueProxyBuilder);
 
-        return producer;
+        BatchingConfiguration batchingConfig = config.getBatchingConfiguration();
+        if (batchingConfig == null || batchingConfig.getMaxBatchSize() <= 1) {
+            return producer;
+        }
+
+        BatchingMessageProducer batchingProducer = new BatchingMessageProducer(
+                producer,
+                batchingConfig.getMaxBatchSize(),
+                batchingConfig.getMaxLingerMillis(),
+                Math.max(1, batchingConfig.getMaxPendingBatches()),
+                PRODUCER_SHUTDOWN_TIMEOUT_MILLIS,
+                environment.metrics());
+        // managed before the consumer and its workers, so that it is stopped after them and sends what they produced
+        environment.lifecycle().manage(batchingProducer);
+        return batchingProducer;
     }
 
     protected void registerListener(
@@ -339,4 +459,19 @@ public class MethodeArticleInternalComponentsMapperApplication extends Applicati
                 )
         );
     }
+
+    /**
+     * Unlike {@link ThreadPoolExecutor.CallerRunsPolicy}, which silently drops a task once the executor is shut down,
+     * this rejects it so that the submitter knows it will never complete.
+     */
+    private static class CallerRunsUntilShutdown implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            task.run();
+        }
+    }
 }
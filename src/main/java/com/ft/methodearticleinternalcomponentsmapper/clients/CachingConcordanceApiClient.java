@@ -0,0 +1,129 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.UppServiceConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sun.jersey.api.client.Client;
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ConcordanceApiClient} that keeps the concordances of each TME identifier value for a while, so that
+ * companies tagged in many articles are not looked up for every one of them.
+ * <p>
+ * Identifier values with no concordance are remembered too, for a shorter time. Only the identifier values that
+ * are not cached are requested from the Concordance API, in a single call; if that call fails, nothing is cached.
+ */
+public class CachingConcordanceApiClient extends ConcordanceApiClient {
+
+    private final Cache<String, List<Concordance>> concorded;
+    private final Cache<String, Boolean> notConcorded;
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+
+    public CachingConcordanceApiClient(UppServiceConfiguration uppServiceConfiguration,
+                                       CacheConfiguration cacheConfiguration,
+                                       Environment environment) {
+        super(uppServiceConfiguration, environment);
+
+        MetricRegistry metrics = environment.metrics();
+        this.hits = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-hits"));
+        this.misses = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-misses"));
+        this.evictions = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-evictions"));
+        this.concorded = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), Ticker.systemTicker());
+        this.notConcorded = newCache(cacheConfiguration.getMaximumSize(), negativeTtl(cacheConfiguration), Ticker.systemTicker());
+    }
+
+    CachingConcordanceApiClient(Client jerseyClient, String apiHost, int apiPort, String apiPath, String hostHeader,
+                                CacheConfiguration cacheConfiguration, MetricRegistry metrics, Ticker ticker) {
+        super(jerseyClient, apiHost, apiPort, apiPath, hostHeader);
+
+        this.hits = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-hits"));
+        this.misses = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-misses"));
+        this.evictions = metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, "cache-evictions"));
+        this.concorded = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), ticker);
+        this.notConcorded = newCache(cacheConfiguration.getMaximumSize(), negativeTtl(cacheConfiguration), ticker);
+    }
+
+    @Override
+    public Concordances getConcordancesByIdentifierValues(List<String> identifierValues) {
+        if (identifierValues.isEmpty()) {
+            return super.getConcordancesByIdentifierValues(identifierValues);
+        }
+
+        Set<String> distinctIdentifierValues = new LinkedHashSet<>(identifierValues);
+        List<Concordance> concordances = new ArrayList<>();
+        Set<String> uncached = new LinkedHashSet<>();
+        for (String identifierValue : distinctIdentifierValues) {
+            List<Concordance> cached = concorded.getIfPresent(identifierValue);
+            if (cached != null) {
+                concordances.addAll(cached);
+            } else if (notConcorded.getIfPresent(identifierValue) == null) {
+                uncached.add(identifierValue);
+            }
+        }
+
+        hits.mark(distinctIdentifierValues.size() - uncached.size());
+        if (uncached.isEmpty()) {
+            return new Concordances(concordances);
+        }
+
+        misses.mark(uncached.size());
+        Concordances fetched = super.getConcordancesByIdentifierValues(new ArrayList<>(uncached));
+
+        Map<String, List<Concordance>> fetchedByIdentifierValue = new HashMap<>();
+        if (fetched != null && fetched.getConcordances() != null) {
+            for (Concordance concordance : fetched.getConcordances()) {
+                concordances.add(concordance);
+                if (concordance.getIdentifier() != null && TME_AUTHORITY.equals(concordance.getIdentifier().getAuthority())) {
+                    fetchedByIdentifierValue
+                            .computeIfAbsent(concordance.getIdentifier().getIdentifierValue(), value -> new ArrayList<>())
+                            .add(concordance);
+                }
+            }
+        }
+
+        for (String identifierValue : uncached) {
+            List<Concordance> found = fetchedByIdentifierValue.get(identifierValue);
+            if (found == null) {
+                notConcorded.put(identifierValue, Boolean.TRUE);
+            } else {
+                concorded.put(identifierValue, found);
+            }
+        }
+
+        return new Concordances(concordances);
+    }
+
+    private static Duration negativeTtl(CacheConfiguration cacheConfiguration) {
+        return cacheConfiguration.getNegativeTtl() != null ? cacheConfiguration.getNegativeTtl() : cacheConfiguration.getTtl();
+    }
+
+    private <V> Cache<String, V> newCache(long maximumSize, Duration ttl, Ticker ticker) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.toMilliseconds(), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        evictions.mark();
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.UppServiceConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.messaging.ContentChangeListener;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sun.jersey.api.client.Client;
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link DocumentStoreApiClient} that remembers which linked UUIDs are in the Document Store and with which type,
+ * so that the links of a body are resolved with an mget of only the UUIDs it has not seen recently.
+ * <p>
+ * UUIDs missing from the Document Store are remembered too, for a shorter time. Entries are dropped when a
+ * publish event for the UUID is consumed (see {@link ContentChangeListener}). As the Document Store is only updated
+ * after that event has been processed downstream, a link resolved in between can cache the old state again, but
+ * only until the entry expires.
+ * <p>
+ * The answers of {@link #isUUIDPresent} and {@link #resolveUUID} are memoised as well, but only when positive, so
+ * that a placeholder published before its original content is looked up again, and they are dropped along with the
+ * entries for the UUID when its content changes. Concurrent callers asking for the
+ * same key share a single request, made with the transaction id of the first of them.
+ */
+public class CachingDocumentStoreApiClient extends DocumentStoreApiClient implements ContentChangeListener {
+
+    private final Cache<String, Content> present;
+    private final Cache<String, Boolean> notPresent;
+    private final Cache<String, Boolean> uuidPresent;
+    private final Cache<String, String> resolvedUuids;
+    private final Cache<String, Set<String>> resolvedIdentifiers;
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+    private final Meter invalidations;
+    private final Meter lookupHits;
+    private final Meter lookupMisses;
+
+    public CachingDocumentStoreApiClient(UppServiceConfiguration uppServiceConfiguration,
+                                         CacheConfiguration cacheConfiguration,
+                                         Environment environment) {
+        super(uppServiceConfiguration, environment);
+
+        MetricRegistry metrics = environment.metrics();
+        this.hits = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-hits"));
+        this.misses = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-misses"));
+        this.evictions = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-evictions"));
+        this.invalidations = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-invalidations"));
+        this.lookupHits = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "lookup-cache-hits"));
+        this.lookupMisses = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "lookup-cache-misses"));
+        this.present = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), Ticker.systemTicker());
+        this.notPresent = newCache(cacheConfiguration.getMaximumSize(), negativeTtl(cacheConfiguration), Ticker.systemTicker());
+        this.uuidPresent = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), Ticker.systemTicker());
+        this.resolvedUuids = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), Ticker.systemTicker());
+        this.resolvedIdentifiers = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), Ticker.systemTicker());
+    }
+
+    CachingDocumentStoreApiClient(Client documentStoreJerseyClient, String docStoreHost, int docStorePort, String docStoreHostHeader,
+                                  CacheConfiguration cacheConfiguration, MetricRegistry metrics, Ticker ticker) {
+        super(documentStoreJerseyClient, docStoreHost, docStorePort, docStoreHostHeader);
+
+        this.hits = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-hits"));
+        this.misses = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-misses"));
+        this.evictions = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-evictions"));
+        this.invalidations = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "content-cache-invalidations"));
+        this.lookupHits = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "lookup-cache-hits"));
+        this.lookupMisses = metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, "lookup-cache-misses"));
+        this.present = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), ticker);
+        this.notPresent = newCache(cacheConfiguration.getMaximumSize(), negativeTtl(cacheConfiguration), ticker);
+        this.uuidPresent = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), ticker);
+        this.resolvedUuids = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), ticker);
+        this.resolvedIdentifiers = newCache(cacheConfiguration.getMaximumSize(), cacheConfiguration.getTtl(), ticker);
+    }
+
+    @Override
+    public String resolveUUID(String identifierAuthority, String identifierValue, String transactionId) {
+        if (identifierAuthority == null || identifierValue == null) {
+            return super.resolveUUID(identifierAuthority, identifierValue, transactionId);
+        }
+        String identifier = identifierAuthority + "\n" + identifierValue;
+        return memoised(resolvedUuids, identifier, () -> {
+            String uuid = super.resolveUUID(identifierAuthority, identifierValue, transactionId);
+            // remembered by UUID as well, so that the identifiers resolved to a content can be dropped when it changes
+            resolvedIdentifiers.asMap().computeIfAbsent(uuid, resolved -> ConcurrentHashMap.newKeySet()).add(identifier);
+            return uuid;
+        });
+    }
+
+    @Override
+    public boolean isUUIDPresent(String uuid, String transactionId) {
+        try {
+            return memoised(uuidPresent, uuid, () -> {
+                if (!super.isUUIDPresent(uuid, transactionId)) {
+                    throw NotPresent.INSTANCE;
+                }
+                return Boolean.TRUE;
+            });
+        } catch (NotPresent e) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<Content> getContentForUuids(Collection<String> uuids, String transactionId) {
+        if (uuids.isEmpty()) {
+            return super.getContentForUuids(uuids, transactionId);
+        }
+
+        Set<String> distinctUuids = new LinkedHashSet<>(uuids);
+        List<Content> content = new ArrayList<>();
+        Set<String> uncached = new LinkedHashSet<>();
+        for (String uuid : distinctUuids) {
+            Content cached = present.getIfPresent(uuid);
+            if (cached != null) {
+                content.add(cached);
+            } else if (notPresent.getIfPresent(uuid) == null) {
+                uncached.add(uuid);
+            }
+        }
+
+        hits.mark(distinctUuids.size() - uncached.size());
+        if (uncached.isEmpty()) {
+            return content;
+        }
+
+        misses.mark(uncached.size());
+        List<Content> fetched = super.getContentForUuids(new ArrayList<>(uncached), transactionId);
+
+        Set<String> found = new HashSet<>();
+        for (Content item : fetched) {
+            content.add(item);
+            if (uncached.contains(item.getUuid())) {
+                found.add(item.getUuid());
+                present.put(item.getUuid(), item);
+            }
+        }
+        for (String uuid : uncached) {
+            if (!found.contains(uuid)) {
+                notPresent.put(uuid, Boolean.TRUE);
+            }
+        }
+
+        return content;
+    }
+
+    @Override
+    public void contentChanged(String uuid) {
+        if (present.getIfPresent(uuid) != null || notPresent.getIfPresent(uuid) != null) {
+            invalidations.mark();
+        }
+        present.invalidate(uuid);
+        notPresent.invalidate(uuid);
+        uuidPresent.invalidate(uuid);
+        Set<String> identifiers = resolvedIdentifiers.getIfPresent(uuid);
+        if (identifiers != null) {
+            resolvedUuids.invalidateAll(identifiers);
+            resolvedIdentifiers.invalidate(uuid);
+        }
+    }
+
+    /**
+     * Looks the key up, loading it if absent. A load that throws is not cached, and the exception is rethrown to
+     * every caller that waited for it.
+     */
+    private <V> V memoised(Cache<String, V> cache, String key, Callable<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            lookupHits.mark();
+            return cached;
+        }
+        try {
+            return cache.get(key, () -> {
+                lookupMisses.mark();
+                return loader.call();
+            });
+        } catch (UncheckedExecutionException | ExecutionError | ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Duration negativeTtl(CacheConfiguration cacheConfiguration) {
+        return cacheConfiguration.getNegativeTtl() != null ? cacheConfiguration.getNegativeTtl() : cacheConfiguration.getTtl();
+    }
+
+    private <V> Cache<String, V> newCache(long maximumSize, Duration ttl, Ticker ticker) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.toMilliseconds(), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        evictions.mark();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Fails the load of a UUID that is not present, so that the answer is shared with concurrent callers but not cached.
+     */
+    private static final class NotPresent extends RuntimeException {
+
+        private static final NotPresent INSTANCE = new NotPresent();
+
+        private NotPresent() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -20,7 +20,7 @@ import static javax.servlet.http.HttpServletResponse.SC_OK;
 public class ConcordanceApiClient extends UppServiceClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(ConcordanceApiClient.class);
-    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+    static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
 
     private final URI concordanceApiBaseUri;
 
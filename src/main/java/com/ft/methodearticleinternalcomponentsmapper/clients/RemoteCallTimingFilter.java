@@ -0,0 +1,45 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.util.Locale;
+
+/**
+ * Times every call made through a Jersey client, including any retries the client makes, under a timer named after
+ * the remote service, the HTTP method and the first segment of the request path, e.g.
+ * {@code RemoteCallTimingFilter.document-store-api.get.content-query}.
+ */
+public class RemoteCallTimingFilter extends ClientFilter {
+
+    private final MetricRegistry metrics;
+    private final String service;
+
+    public RemoteCallTimingFilter(MetricRegistry metrics, String service) {
+        this.metrics = metrics;
+        this.service = service;
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        Timer timer = metrics.timer(MetricRegistry.name(RemoteCallTimingFilter.class,
+                service, request.getMethod().toLowerCase(Locale.ROOT), operation(request.getURI().getPath())));
+        try (Timer.Context ignored = timer.time()) {
+            return getNext().handle(request);
+        }
+    }
+
+    private static String operation(String path) {
+        if (path == null) {
+            return "root";
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+        return segment.isEmpty() ? "root" : segment;
+    }
+}
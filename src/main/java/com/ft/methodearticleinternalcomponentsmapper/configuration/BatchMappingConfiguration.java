@@ -0,0 +1,23 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BatchMappingConfiguration {
+
+    private final int threads;
+    private final int maxItemsInFlight;
+
+    public BatchMappingConfiguration(@JsonProperty("threads") int threads,
+                                     @JsonProperty("maxItemsInFlight") int maxItemsInFlight) {
+        this.threads = threads;
+        this.maxItemsInFlight = maxItemsInFlight;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getMaxItemsInFlight() {
+        return maxItemsInFlight;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BatchingConfiguration {
+
+    private final int maxBatchSize;
+    private final long maxLingerMillis;
+    private final int maxPendingBatches;
+
+    public BatchingConfiguration(@JsonProperty("maxBatchSize") int maxBatchSize,
+                                 @JsonProperty("maxLingerMillis") long maxLingerMillis,
+                                 @JsonProperty("maxPendingBatches") int maxPendingBatches) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMillis = maxLingerMillis;
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxLingerMillis() {
+        return maxLingerMillis;
+    }
+
+    public int getMaxPendingBatches() {
+        return maxPendingBatches;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+public class CacheConfiguration {
+
+    private final long maximumSize;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+
+    public CacheConfiguration(@JsonProperty("maximumSize") long maximumSize,
+                              @JsonProperty("ttl") Duration ttl,
+                              @JsonProperty("negativeTtl") Duration negativeTtl) {
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+public class DeduplicationConfiguration {
+
+    private final Duration window;
+    private final long maximumSize;
+
+    public DeduplicationConfiguration(@JsonProperty("window") Duration window,
+                                      @JsonProperty("maximumSize") long maximumSize) {
+        this.window = window;
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+}
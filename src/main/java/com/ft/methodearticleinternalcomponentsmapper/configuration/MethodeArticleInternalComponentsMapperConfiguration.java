@@ -28,6 +28,12 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
     private final Map<String, String> contentTypeTemplates;
     private final String apiHost;
     private final String canonicalUrlTemplate;
+    private final ParallelMappingConfiguration parallelMappingConfiguration;
+    private final CacheConfiguration concordanceApiCacheConfiguration;
+    private final CacheConfiguration documentStoreApiCacheConfiguration;
+    private final CacheConfiguration publishingStatusCacheConfiguration;
+    private final DeduplicationConfiguration deduplicationConfiguration;
+    private final BatchMappingConfiguration batchMappingConfiguration;
 
     public MethodeArticleInternalComponentsMapperConfiguration(@JsonProperty("consumer") ConsumerConfiguration consumerConfiguration,
                                                                @JsonProperty("producer") ProducerConfiguration producerConfiguration,
@@ -41,7 +47,13 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
                                                                @JsonProperty("contentUriPrefix") String contentUriPrefix,
                                                                @JsonProperty("contentTypeTemplates") Map<String, String> contentTypeTemplates,
                                                                @JsonProperty("apiHost") String apiHost,
-                                                               @JsonProperty("canonicalUrlTemplate") String canonicalUrlTemplate) {
+                                                               @JsonProperty("canonicalUrlTemplate") String canonicalUrlTemplate,
+                                                               @JsonProperty("parallelMapping") ParallelMappingConfiguration parallelMappingConfiguration,
+                                                               @JsonProperty("concordanceApiCache") CacheConfiguration concordanceApiCacheConfiguration,
+                                                               @JsonProperty("documentStoreApiCache") CacheConfiguration documentStoreApiCacheConfiguration,
+                                                               @JsonProperty("publishingStatusCache") CacheConfiguration publishingStatusCacheConfiguration,
+                                                               @JsonProperty("deduplication") DeduplicationConfiguration deduplicationConfiguration,
+                                                               @JsonProperty("batchMapping") BatchMappingConfiguration batchMappingConfiguration) {
         this.consumerConfiguration = consumerConfiguration;
         this.producerConfiguration = producerConfiguration;
         this.documentStoreApiConfiguration = documentStoreApiConfiguration;
@@ -55,6 +67,12 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
         this.contentTypeTemplates = contentTypeTemplates;
         this.apiHost = apiHost;
         this.canonicalUrlTemplate = canonicalUrlTemplate;
+        this.parallelMappingConfiguration = parallelMappingConfiguration;
+        this.concordanceApiCacheConfiguration = concordanceApiCacheConfiguration;
+        this.documentStoreApiCacheConfiguration = documentStoreApiCacheConfiguration;
+        this.publishingStatusCacheConfiguration = publishingStatusCacheConfiguration;
+        this.deduplicationConfiguration = deduplicationConfiguration;
+        this.batchMappingConfiguration = batchMappingConfiguration;
     }
 
     @JsonProperty
@@ -127,6 +145,30 @@ public class MethodeArticleInternalComponentsMapperConfiguration extends Configu
         return canonicalUrlTemplate;
     }
 
+    public ParallelMappingConfiguration getParallelMappingConfiguration() {
+        return parallelMappingConfiguration;
+    }
+
+    public CacheConfiguration getConcordanceApiCacheConfiguration() {
+        return concordanceApiCacheConfiguration;
+    }
+
+    public CacheConfiguration getDocumentStoreApiCacheConfiguration() {
+        return documentStoreApiCacheConfiguration;
+    }
+
+    public CacheConfiguration getPublishingStatusCacheConfiguration() {
+        return publishingStatusCacheConfiguration;
+    }
+
+    public DeduplicationConfiguration getDeduplicationConfiguration() {
+        return deduplicationConfiguration;
+    }
+
+    public BatchMappingConfiguration getBatchMappingConfiguration() {
+        return batchMappingConfiguration;
+    }
+
     @Override
     public AppInfo getAppInfo() {
         return appInfo;
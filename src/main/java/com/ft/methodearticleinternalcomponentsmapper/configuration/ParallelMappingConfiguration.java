@@ -0,0 +1,44 @@
+package com.ft.methodearticleinternalcomponentsmapper.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ParallelMappingConfiguration {
+
+    private final boolean enabled;
+    private final int remoteCallThreads;
+    private final int consumerWorkers;
+    private final int consumerWorkerQueueSize;
+    private final long consumerWorkerShutdownTimeoutMillis;
+
+    public ParallelMappingConfiguration(@JsonProperty("enabled") boolean enabled,
+                                        @JsonProperty("remoteCallThreads") int remoteCallThreads,
+                                        @JsonProperty("consumerWorkers") int consumerWorkers,
+                                        @JsonProperty("consumerWorkerQueueSize") int consumerWorkerQueueSize,
+                                        @JsonProperty("consumerWorkerShutdownTimeoutMillis") long consumerWorkerShutdownTimeoutMillis) {
+        this.enabled = enabled;
+        this.remoteCallThreads = remoteCallThreads;
+        this.consumerWorkers = consumerWorkers;
+        this.consumerWorkerQueueSize = consumerWorkerQueueSize;
+        this.consumerWorkerShutdownTimeoutMillis = consumerWorkerShutdownTimeoutMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getRemoteCallThreads() {
+        return remoteCallThreads;
+    }
+
+    public int getConsumerWorkers() {
+        return consumerWorkers;
+    }
+
+    public int getConsumerWorkerQueueSize() {
+        return consumerWorkerQueueSize;
+    }
+
+    public long getConsumerWorkerShutdownTimeoutMillis() {
+        return consumerWorkerShutdownTimeoutMillis;
+    }
+}
@@ -10,14 +10,17 @@ public class ProducerConfiguration {
     private final JerseyClientConfiguration jerseyConfig;
     private final QueueProxyConfiguration producerConfig;
     private final HealthcheckConfiguration healthcheckConfig;
+    private final BatchingConfiguration batchingConfig;
 
     public ProducerConfiguration(@JsonProperty("jerseyClient") JerseyClientConfiguration jerseyConfig,
                                  @JsonProperty("messageProducer") QueueProxyConfiguration producerConfig,
-                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig) {
+                                 @JsonProperty("healthCheck") HealthcheckConfiguration healthcheckConfig,
+                                 @JsonProperty("batching") BatchingConfiguration batchingConfig) {
 
         this.jerseyConfig = jerseyConfig;
         this.producerConfig = producerConfig;
         this.healthcheckConfig = healthcheckConfig;
+        this.batchingConfig = batchingConfig;
     }
 
     public JerseyClientConfiguration getJerseyClientConfiguration() {
@@ -31,4 +34,8 @@ public class ProducerConfiguration {
     public HealthcheckConfiguration getHealthcheckConfiguration() {
         return healthcheckConfig;
     }
+
+    public BatchingConfiguration getBatchingConfiguration() {
+        return batchingConfig;
+    }
 }
@@ -0,0 +1,193 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MessageProducer} that collects messages into batches and sends each batch to the wrapped producer
+ * with a single call, so that a kafka-proxy round trip carries many messages instead of one.
+ * <p>
+ * A batch is sent when it reaches the maximum batch size, when its oldest message has waited for the maximum
+ * linger time, or when the producer is stopped. Batches are sent one at a time by a single thread, in the order
+ * in which they were filled, so messages (and in particular messages with the same key) reach the proxy in the
+ * order in which they were passed to {@link #send}. At most <code>maxPendingBatches</code> full batches wait to
+ * be sent; beyond that {@link #send} blocks until a batch has gone.
+ * <p>
+ * {@link #send} returns once the messages are batched, so a failure to send a batch is not seen by the caller:
+ * it is logged and counted instead. A caller that needs to know whether its messages went uses
+ * {@link #sendAndConfirm}, whose future completes once their batch has been sent, or exceptionally if it failed.
+ */
+public class BatchingMessageProducer implements MessageProducer, Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingMessageProducer.class);
+
+    private final MessageProducer producer;
+    private final int maxBatchSize;
+    private final long maxLingerMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final ExecutorService sender;
+    private final ScheduledExecutorService lingerTimer;
+    private final Semaphore pendingBatches;
+
+    private final Histogram batchSizes;
+    private final Timer batchSendTimer;
+    private final Meter failedBatches;
+    private final Meter failedMessages;
+
+    private final Object lock = new Object();
+    private List<Message> batch;
+    private List<CompletableFuture<Void>> confirmations;
+    private long batchNumber;
+    private boolean stopped;
+
+    public BatchingMessageProducer(MessageProducer producer,
+                                   int maxBatchSize,
+                                   long maxLingerMillis,
+                                   int maxPendingBatches,
+                                   long shutdownTimeoutMillis,
+                                   MetricRegistry metrics) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (maxPendingBatches < 1) {
+            throw new IllegalArgumentException("maxPendingBatches must be at least 1");
+        }
+
+        this.producer = producer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMillis = maxLingerMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+        this.sender = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("message-producer-sender-%d").build());
+        this.lingerTimer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("message-producer-linger-%d").setDaemon(true).build());
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+
+        this.batchSizes = metrics.histogram(MetricRegistry.name(BatchingMessageProducer.class, "batch-size"));
+        this.batchSendTimer = metrics.timer(MetricRegistry.name(BatchingMessageProducer.class, "batch-send"));
+        this.failedBatches = metrics.meter(MetricRegistry.name(BatchingMessageProducer.class, "failed-batches"));
+        this.failedMessages = metrics.meter(MetricRegistry.name(BatchingMessageProducer.class, "failed-messages"));
+
+        this.batch = new ArrayList<>(maxBatchSize);
+        this.confirmations = new ArrayList<>(maxBatchSize);
+    }
+
+    @Override
+    public void send(List<Message> messages) {
+        sendAndConfirm(messages);
+    }
+
+    /**
+     * Batches the messages as {@link #send} does.
+     *
+     * @return a future completed on the sender thread once every one of the messages has been sent, or
+     * exceptionally as soon as a batch holding one of them fails.
+     */
+    public CompletableFuture<Void> sendAndConfirm(List<Message> messages) {
+        CompletableFuture<?>[] sent = new CompletableFuture<?>[messages.size()];
+        synchronized (lock) {
+            if (stopped) {
+                throw new IllegalStateException("Message producer has been stopped");
+            }
+
+            for (int i = 0; i < messages.size(); i++) {
+                CompletableFuture<Void> confirmation = new CompletableFuture<>();
+                sent[i] = confirmation;
+                batch.add(messages.get(i));
+                confirmations.add(confirmation);
+                if (batch.size() == 1 && maxBatchSize > 1) {
+                    long lingering = batchNumber;
+                    lingerTimer.schedule(() -> flush(lingering), maxLingerMillis, TimeUnit.MILLISECONDS);
+                }
+                if (batch.size() >= maxBatchSize) {
+                    dispatchBatch();
+                }
+            }
+        }
+        return CompletableFuture.allOf(sent);
+    }
+
+    @Override
+    public void start() throws Exception {
+    }
+
+    @Override
+    public void stop() throws Exception {
+        synchronized (lock) {
+            stopped = true;
+            if (!batch.isEmpty()) {
+                dispatchBatch();
+            }
+        }
+
+        lingerTimer.shutdownNow();
+        sender.shutdown();
+        if (!sender.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            LOG.warn("Batches were still being sent {} ms after stop, {} of them were dropped",
+                    shutdownTimeoutMillis, sender.shutdownNow().size());
+        }
+    }
+
+    private void flush(long lingering) {
+        synchronized (lock) {
+            // the batch may have been sent for being full since the timer was set, and a new one started
+            if (!stopped && batchNumber == lingering && !batch.isEmpty()) {
+                dispatchBatch();
+            }
+        }
+    }
+
+    /**
+     * Hands the current batch to the sender and starts a new one. Must be called holding the lock, so that
+     * batches are queued to the single sender thread in the order in which they were filled.
+     */
+    private void dispatchBatch() {
+        List<Message> full = batch;
+        List<CompletableFuture<Void>> fullConfirmations = confirmations;
+        batch = new ArrayList<>(maxBatchSize);
+        confirmations = new ArrayList<>(maxBatchSize);
+        batchNumber++;
+
+        pendingBatches.acquireUninterruptibly();
+        sender.execute(() -> {
+            try {
+                sendBatch(full, fullConfirmations);
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private void sendBatch(List<Message> messages, List<CompletableFuture<Void>> sent) {
+        batchSizes.update(messages.size());
+        try (Timer.Context t = batchSendTimer.time()) {
+            producer.send(messages);
+        } catch (RuntimeException e) {
+            failedBatches.mark();
+            failedMessages.mark(messages.size());
+            LOG.error("Unable to send a batch of {} messages", messages.size(), e);
+            sent.forEach(confirmation -> confirmation.completeExceptionally(e));
+            return;
+        }
+        sent.forEach(confirmation -> confirmation.complete(null));
+    }
+}
@@ -0,0 +1,10 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+/**
+ * Notified of the UUID of every piece of content for which a native CMS publication event is consumed, whether
+ * or not the event is mapped, so that anything known about that content can be forgotten.
+ */
+public interface ContentChangeListener {
+
+    void contentChanged(String uuid);
+}
@@ -7,14 +7,17 @@ import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDele
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleNotEligibleForPublishException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleUnsupportedSourceCodeException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
-import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.util.EomFileHashing;
+import com.google.common.hash.HashCode;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 public class MessageProducingInternalComponentsMapper {
 
@@ -23,18 +26,53 @@ public class MessageProducingInternalComponentsMapper {
     private final MessageBuilder messageBuilder;
     private final MessageProducer producer;
     private final InternalComponentsMapper internalComponentsMapper;
+    private final PublishEventDeduplicator deduplicator;
 
     public MessageProducingInternalComponentsMapper(
             MessageBuilder messageBuilder,
             MessageProducer producer,
             InternalComponentsMapper internalComponentsMapper) {
 
+        this(messageBuilder, producer, internalComponentsMapper, null);
+    }
+
+    /**
+     * @param deduplicator if not null, an event with the same content as the last one sent for its UUID is
+     *                     skipped before it is validated or transformed.
+     */
+    public MessageProducingInternalComponentsMapper(
+            MessageBuilder messageBuilder,
+            MessageProducer producer,
+            InternalComponentsMapper internalComponentsMapper,
+            PublishEventDeduplicator deduplicator) {
+
         this.messageBuilder = messageBuilder;
         this.producer = producer;
         this.internalComponentsMapper = internalComponentsMapper;
+        this.deduplicator = deduplicator;
+    }
+
+    void mapInternalComponents(ParsedEomFile methodeContent, String transactionId, Date messageTimestamp) {
+        if (deduplicator == null) {
+            mapAndSend(methodeContent, transactionId, messageTimestamp, () -> {
+            });
+            return;
+        }
+
+        HashCode contentHash = EomFileHashing.contentHash(methodeContent.getEomFile());
+        if (deduplicator.isDuplicate(methodeContent.getUuid(), contentHash)) {
+            LOGGER.info("Skipped duplicate publish event for uuid={} transaction_id={}", methodeContent.getUuid(), transactionId);
+            return;
+        }
+        mapAndSend(methodeContent, transactionId, messageTimestamp,
+                () -> deduplicator.sent(methodeContent.getUuid(), contentHash));
     }
 
-    void mapInternalComponents(EomFile methodeContent, String transactionId, Date messageTimestamp) {
+    /**
+     * @param onSent run once the message for the content is known to have been sent; not run if no message is
+     *               built or if sending it fails.
+     */
+    private void mapAndSend(ParsedEomFile methodeContent, String transactionId, Date messageTimestamp, Runnable onSent) {
         Message message;
         try {
             message = messageBuilder.buildMessage(
@@ -56,6 +94,17 @@ public class MessageProducingInternalComponentsMapper {
             LOGGER.error("Article with uuid={} failed to be transformed.\n Stack trace was: {}", methodeContent.getUuid(), ExceptionUtils.getStackTrace(e));
             return;
         }
-        producer.send(Collections.singletonList(message));
+        send(message, onSent);
+    }
+
+    private void send(Message message, Runnable onSent) {
+        List<Message> messages = Collections.singletonList(message);
+        if (producer instanceof BatchingMessageProducer) {
+            // the batch is sent later, and a failure to send it is logged by the batching producer, not thrown here
+            ((BatchingMessageProducer) producer).sendAndConfirm(messages).thenRun(onSent);
+        } else {
+            producer.send(messages);
+            onSent.run();
+        }
     }
 }
@@ -1,30 +1,23 @@
 package com.ft.methodearticleinternalcomponentsmapper.messaging;
 
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.SOURCE_ATTR_XPATH;
-
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.message.consumer.MessageListener;
 import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleInternalComponentsMapperException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.StringReader;
+import java.util.Date;
 import java.util.function.Predicate;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.stream.XMLStreamException;
 
 public class NativeCmsPublicationEventsListener implements MessageListener {
 
@@ -33,12 +26,32 @@ public class NativeCmsPublicationEventsListener implements MessageListener {
     private final MessageProducingInternalComponentsMapper msgProducingArticleMapper;
     private final ObjectMapper objectMapper;
     private final Predicate<Message> messageFilter;
+    private final PartitionedExecutor mappingExecutor;
+    private final ContentChangeListener contentChangeListener;
 
     public NativeCmsPublicationEventsListener(ObjectMapper objectMapper, MessageProducingInternalComponentsMapper msgProducingArticleMapper, String systemCode) {
+        this(objectMapper, msgProducingArticleMapper, systemCode, null, null);
+    }
+
+    /**
+     * @param mappingExecutor if not null, messages are mapped on its workers, partitioned by content UUID so that
+     *                        successive events for the same content are still mapped in order; the consumer thread
+     *                        only filters messages and blocks while the worker for a UUID has a full queue.
+     *                        A message is acknowledged once it is queued, not once it is mapped, so delivery becomes
+     *                        at-most-once: if the process dies, the messages queued or being mapped, up to workers
+     *                        &times; (queue size + 1), are lost. On a clean stop the queues are drained first. With
+     *                        no executor, a message is only acknowledged after it is mapped.
+     * @param contentChangeListener if not null, told the UUID of the content of every message from the
+     *                              configured system, including the messages that are not mapped.
+     */
+    public NativeCmsPublicationEventsListener(ObjectMapper objectMapper, MessageProducingInternalComponentsMapper msgProducingArticleMapper, String systemCode,
+                                              PartitionedExecutor mappingExecutor, ContentChangeListener contentChangeListener) {
         this.objectMapper = objectMapper;
         this.msgProducingArticleMapper = msgProducingArticleMapper;
+        this.mappingExecutor = mappingExecutor;
+        this.contentChangeListener = contentChangeListener;
 
-        this.messageFilter = systemIDFilter(systemCode).and(contentTypeFilter(objectMapper));
+        this.messageFilter = systemIDFilter(systemCode);
     }
 
     @Override
@@ -49,52 +62,101 @@ public class NativeCmsPublicationEventsListener implements MessageListener {
             return true;
         }
 
-        LOG.info("Process message");
+        ParsedEomFile preview = preview(message);
+        if (preview != null && preview.getUuid() != null && contentChangeListener != null) {
+            contentChangeListener.contentChanged(preview.getUuid());
+        }
+        if (preview == null || !isValidType(preview.getType()) || !isValidSource(preview)) {
+            LOG.info("Skip message");
+            LOG.debug("Skip message {}", message);
+            return true;
+        }
+
+        ParsedEomFile methodeContent;
         try {
-            EomFile methodeContent = objectMapper.reader(EomFile.class).readValue(message.getMessageBody());
-            msgProducingArticleMapper.mapInternalComponents(methodeContent, transactionId, message.getMessageTimestamp());
+            methodeContent = new ParsedEomFile(objectMapper.reader(EomFile.class).readValue(message.getMessageBody()));
         } catch (IOException e) {
             throw new MethodeArticleInternalComponentsMapperException("Unable to process message", e);
         }
+
+        LOG.info("Process message");
+        if (mappingExecutor == null) {
+            msgProducingArticleMapper.mapInternalComponents(methodeContent, transactionId, message.getMessageTimestamp());
+        } else {
+            mappingExecutor.execute(methodeContent.getUuid(),
+                    () -> mapInternalComponents(methodeContent, transactionId, message.getMessageTimestamp()));
+        }
         return true;
     }
 
+    private void mapInternalComponents(ParsedEomFile methodeContent, String transactionId, Date messageTimestamp) {
+        try {
+            msgProducingArticleMapper.mapInternalComponents(methodeContent, transactionId, messageTimestamp);
+        } catch (RuntimeException e) {
+            LOG.error("Unable to process message for uuid={} transaction_id={}", methodeContent.getUuid(), transactionId, e);
+        }
+    }
+
     private Predicate<Message> systemIDFilter(String systemCode) {
         return msg -> (SystemId.systemIdFromCode(systemCode).equals(msg.getOriginSystemId()));
     }
 
-    private Predicate<Message> contentTypeFilter(ObjectMapper objectMapper) {
-        return msg -> {
-            EomFile eomFile = null;
-            try {
-                eomFile = objectMapper.reader(EomFile.class).readValue(msg.getMessageBody());
-            } catch (IOException e) {
-                LOG.warn("Message filter failure", e);
-                return false;
+    /**
+     * Streams the message body and reads only the <code>uuid</code>, <code>type</code> and <code>attributes</code>
+     * fields, without decoding the Base64 <code>value</code> or building an {@link EomFile} from the whole body.
+     * Reading stops as soon as the uuid is known and the type is known not to be mapped.
+     *
+     * @return the uuid, type and attributes, or <code>null</code> if the body is not a JSON object
+     */
+    private ParsedEomFile preview(Message message) {
+        String uuid = null;
+        String type = null;
+        String attributes = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(message.getMessageBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                LOG.warn("Message filter failure: message body is not a JSON object");
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("uuid".equals(field)) {
+                    uuid = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                } else if ("type".equals(field)) {
+                    type = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                } else if ("attributes".equals(field)) {
+                    attributes = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                } else {
+                    // the value of an unused field is skipped without being decoded
+                    parser.skipChildren();
+                }
+                if (uuid != null && type != null && (!isValidType(type) || attributes != null)) {
+                    break;
+                }
             }
-            return isValidType(eomFile.getType())
-                    && isValidSource(eomFile.getAttributes());
-        };
+        } catch (IOException e) {
+            LOG.warn("Message filter failure", e);
+            return null;
+        }
+
+        return new ParsedEomFile(new EomFile.Builder().withUuid(uuid).withType(type).withAttributes(attributes).build());
     }
 
     private boolean isValidType(String type) {
         return "EOM::CompoundStory".equals(type);
     }
 
-    private boolean isValidSource(String attributes) {
+    private boolean isValidSource(ParsedEomFile eomFile) {
+        if (eomFile.getEomFile().getAttributes() == null) {
+            return false;
+        }
+
         String sourceCode = null;
 
         try {
-            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-            DocumentBuilder db = documentBuilderFactory.newDocumentBuilder();
-            Document attributesDocument = db.parse(new InputSource(new StringReader(attributes)));
-
-            XPath xpath = XPathFactory.newInstance().newXPath();
-
-            sourceCode = xpath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
-        } catch (IOException | ParserConfigurationException | SAXException | XPathExpressionException e) {
+            sourceCode = eomFile.getSourceCode();
+        } catch (XMLStreamException e) {
             LOG.warn("Unable to obtain EOMFile source", e);
             // and fall through, to return false
         }
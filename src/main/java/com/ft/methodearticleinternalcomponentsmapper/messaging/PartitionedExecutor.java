@@ -0,0 +1,123 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed number of single-threaded partitions, choosing the partition from a key.
+ * <p>
+ * Tasks submitted with the same key always run on the same thread, in submission order, while tasks for
+ * different keys may run concurrently. Each partition has a bounded queue; when it is full, {@link #execute}
+ * blocks the submitting thread until there is room, so a fast producer (the message consumer) is slowed down
+ * to the pace of the workers instead of buffering without limit.
+ * <p>
+ * A task runs with the logging context ({@link MDC}) of the thread that submitted it, such as the transaction id the
+ * consumer logs with, and the worker's own context is restored afterwards.
+ * <p>
+ * On {@link #stop()} no more tasks are accepted and the tasks already queued are run before the workers exit.
+ */
+public class PartitionedExecutor implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedExecutor.class);
+
+    private final ThreadPoolExecutor[] partitions;
+    private final long shutdownTimeoutMillis;
+
+    public PartitionedExecutor(String nameFormat, int partitionCount, int queueSize, long shutdownTimeoutMillis) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("partitionCount must be at least 1");
+        }
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("queueSize must be at least 1");
+        }
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(nameFormat).build();
+        this.partitions = new ThreadPoolExecutor[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize), threadFactory, new BlockWhenFull());
+            partitions[i].prestartAllCoreThreads();
+        }
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public void execute(String key, Runnable task) {
+        partitionFor(key).execute(withLoggingContext(MDC.getCopyOfContextMap(), task));
+    }
+
+    private static Runnable withLoggingContext(Map<String, String> context, Runnable task) {
+        return () -> {
+            Map<String, String> workerContext = MDC.getCopyOfContextMap();
+            setLoggingContext(context);
+            try {
+                task.run();
+            } finally {
+                setLoggingContext(workerContext);
+            }
+        };
+    }
+
+    private static void setLoggingContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    ThreadPoolExecutor partitionFor(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return partitions[(hash & Integer.MAX_VALUE) % partitions.length];
+    }
+
+    @Override
+    public void start() throws Exception {
+    }
+
+    @Override
+    public void stop() throws Exception {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        for (ThreadPoolExecutor partition : partitions) {
+            long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+            if (!partition.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Worker did not finish within {} ms, {} queued tasks were dropped",
+                        shutdownTimeoutMillis, partition.shutdownNow().size());
+            }
+        }
+    }
+
+    private static class BlockWhenFull implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a free slot", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.DeduplicationConfiguration;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognises the identical publish events Methode emits for a single save.
+ * <p>
+ * The hash of the content last sent for each UUID is remembered for a window of time after it was sent. An event is a
+ * duplicate if, within that window, the last content sent for its UUID has the same hash: content that changes and
+ * then changes back is mapped again. Content that is not sent is not remembered, so an event that failed
+ * to be mapped or sent is not suppressed when Methode emits it again.
+ */
+public class PublishEventDeduplicator {
+
+    private final Cache<String, HashCode> lastMapped;
+    private final Meter suppressed;
+
+    public PublishEventDeduplicator(DeduplicationConfiguration configuration, MetricRegistry metrics) {
+        this(configuration, metrics, Ticker.systemTicker());
+    }
+
+    PublishEventDeduplicator(DeduplicationConfiguration configuration, MetricRegistry metrics, Ticker ticker) {
+        this.lastMapped = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getMaximumSize())
+                .expireAfterWrite(configuration.getWindow().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+        this.suppressed = metrics.meter(MetricRegistry.name(PublishEventDeduplicator.class, "suppressed-duplicates"));
+    }
+
+    public boolean isDuplicate(String uuid, HashCode contentHash) {
+        if (contentHash.equals(lastMapped.getIfPresent(uuid))) {
+            suppressed.mark();
+            return true;
+        }
+        return false;
+    }
+
+    public void sent(String uuid, HashCode contentHash) {
+        lastMapped.put(uuid, contentHash);
+    }
+}
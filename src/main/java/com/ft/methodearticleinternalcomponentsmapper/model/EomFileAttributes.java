@@ -0,0 +1,33 @@
+package com.ft.methodearticleinternalcomponentsmapper.model;
+
+/**
+ * The few values of an {@link EomFile}'s attributes that decide whether and how it is mapped, as read by
+ * {@link com.ft.methodearticleinternalcomponentsmapper.util.EomFileAttributesSniffer}.
+ * <p>
+ * Like the XPath evaluations they replace, values are empty strings when the element is missing. Values that were
+ * not asked for are <code>null</code>.
+ */
+public class EomFileAttributes {
+
+    private final String sourceCode;
+    private final String isContentPackage;
+    private final String overrideOriginal;
+
+    public EomFileAttributes(String sourceCode, String isContentPackage, String overrideOriginal) {
+        this.sourceCode = sourceCode;
+        this.isContentPackage = isContentPackage;
+        this.overrideOriginal = overrideOriginal;
+    }
+
+    public String getSourceCode() {
+        return sourceCode;
+    }
+
+    public String getIsContentPackage() {
+        return isContentPackage;
+    }
+
+    public String getOverrideOriginal() {
+        return overrideOriginal;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ft.methodearticleinternalcomponentsmapper.model;
+
+import com.ft.methodearticleinternalcomponentsmapper.util.EomFileAttributesSniffer;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * An {@link EomFile} together with the DOMs of its value and attributes, so that the listener and the mapper
+ * can share the same parsed documents instead of parsing the XML again at every step.
+ * <p>
+ * Each document is parsed on first access and kept for the lifetime of this object. Instances are not thread-safe:
+ * they are meant to be used by one thread at a time, and only handed to another thread through a safe
+ * publication such as an executor queue.
+ */
+public class ParsedEomFile {
+
+    private final EomFile eomFile;
+
+    private Document valueDocument;
+    private Document attributesDocument;
+    private String sourceCode;
+    private EomFileAttributes eomFileAttributes;
+
+    public ParsedEomFile(EomFile eomFile) {
+        this.eomFile = eomFile;
+    }
+
+    public EomFile getEomFile() {
+        return eomFile;
+    }
+
+    public String getUuid() {
+        return eomFile.getUuid();
+    }
+
+    public String getType() {
+        return eomFile.getType();
+    }
+
+    public Document getValueDocument() throws ParserConfigurationException, SAXException, IOException {
+        if (valueDocument == null) {
+            valueDocument = XmlResources.parse(new ByteArrayInputStream(eomFile.getValue()));
+        }
+        return valueDocument;
+    }
+
+    public Document getAttributesDocument() throws ParserConfigurationException, SAXException, IOException {
+        if (attributesDocument == null) {
+            attributesDocument = XmlResources.parse(eomFile.getAttributes());
+        }
+        return attributesDocument;
+    }
+
+    /**
+     * The SourceCode of the attributes, streamed from the attributes XML without building their DOM, so that it
+     * is cheap to check for the messages that are filtered out on it. A caller that needs the flags as well reads
+     * the SourceCode from {@link #getEomFileAttributes()} instead, so that the attributes are only streamed once.
+     */
+    public String getSourceCode() throws XMLStreamException {
+        if (sourceCode == null) {
+            sourceCode = eomFileAttributes != null
+                    ? eomFileAttributes.getSourceCode()
+                    : EomFileAttributesSniffer.sniff(eomFile.getAttributes(), false).getSourceCode();
+        }
+        return sourceCode;
+    }
+
+    public EomFileAttributes getEomFileAttributes() throws XMLStreamException {
+        if (eomFileAttributes == null) {
+            eomFileAttributes = EomFileAttributesSniffer.sniff(eomFile.getAttributes(), true);
+            sourceCode = eomFileAttributes.getSourceCode();
+        }
+        return eomFileAttributes;
+    }
+}
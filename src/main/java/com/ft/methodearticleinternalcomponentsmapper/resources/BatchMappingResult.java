@@ -0,0 +1,54 @@
+package com.ft.methodearticleinternalcomponentsmapper.resources;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+
+/**
+ * A line of the NDJSON response to a batch mapping request: the position of the EomFile in the request, and either
+ * its internal components or the status and message the single mapping endpoint would have answered with.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchMappingResult {
+
+    private final Integer index;
+    private final String uuid;
+    private final int status;
+    private final InternalComponents content;
+    private final String message;
+
+    private BatchMappingResult(Integer index, String uuid, int status, InternalComponents content, String message) {
+        this.index = index;
+        this.uuid = uuid;
+        this.status = status;
+        this.content = content;
+        this.message = message;
+    }
+
+    static BatchMappingResult mapped(int index, String uuid, InternalComponents content) {
+        return new BatchMappingResult(index, uuid, 200, content, null);
+    }
+
+    static BatchMappingResult failed(Integer index, String uuid, int status, String message) {
+        return new BatchMappingResult(index, uuid, status, null, message);
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public InternalComponents getContent() {
+        return content;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
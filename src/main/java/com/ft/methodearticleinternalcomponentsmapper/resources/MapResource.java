@@ -1,6 +1,12 @@
 package com.ft.methodearticleinternalcomponentsmapper.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.api.util.transactionid.TransactionIdUtils;
 import com.ft.methodearticleinternalcomponentsmapper.exception.InvalidMethodeContentException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
@@ -12,6 +18,7 @@ import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
 import org.apache.http.HttpStatus;
 
+import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -20,17 +27,45 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.Date;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 @Path("/")
 public class MapResource {
 
     private static final String CHARSET_UTF_8 = ";charset=utf-8";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
 
     private final InternalComponentsMapper internalComponentsMapper;
+    private final ObjectMapper objectMapper;
+    private final Executor batchExecutor;
+    private final int maxBatchItemsInFlight;
 
     public MapResource(InternalComponentsMapper internalComponentsMapper) {
+        this(internalComponentsMapper, new ObjectMapper(), null, 1);
+    }
+
+    /**
+     * @param batchExecutor         maps the items of a batch; if null, they are mapped one at a time on the request
+     *                              thread.
+     * @param maxBatchItemsInFlight the most items of a batch that are read but not yet written back, which bounds the
+     *                              memory a batch holds however large it is.
+     */
+    public MapResource(InternalComponentsMapper internalComponentsMapper, ObjectMapper objectMapper,
+                       Executor batchExecutor, int maxBatchItemsInFlight) {
         this.internalComponentsMapper = internalComponentsMapper;
+        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+        this.maxBatchItemsInFlight = Math.max(1, maxBatchItemsInFlight);
     }
 
     @POST
@@ -54,4 +89,130 @@ public class MapResource {
         }
     }
 
+    /**
+     * Maps a stream of EomFiles, sent either as a JSON array or as newline-delimited JSON, and streams back a line of
+     * newline-delimited JSON for each of them as soon as it is mapped, so results are not in request order. A line
+     * carries the index of the EomFile in the request and either its internal components or the status the single
+     * mapping endpoint would have answered with, or 503 if it is read after the service has started to stop. If the
+     * request cannot be read to the end, the items read so far are still answered and a last line with status 400 and
+     * no index is written.
+     */
+    @POST
+    @Timed
+    @Path("/map/batch")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces(APPLICATION_NDJSON + CHARSET_UTF_8)
+    public final StreamingOutput mapBatch(@QueryParam("preview") boolean preview, InputStream eomFiles,
+                                          @Context HttpHeaders httpHeaders) {
+
+        String transactionId = TransactionIdUtils.getTransactionIdOrDie(httpHeaders);
+        return output -> {
+            // results are written straight to the response, not built up in a buffer first, so that a long read's
+            // body is only ever held in memory as the mapped String
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                mapBatch(eomFiles, transactionId, preview, generator);
+            }
+        };
+    }
+
+    private void mapBatch(InputStream eomFiles, String transactionId, boolean preview, JsonGenerator output) throws IOException {
+        CompletionService<BatchMappingResult> results = new ExecutorCompletionService<>(
+                batchExecutor == null ? Runnable::run : batchExecutor);
+        int inFlight = 0;
+        String unreadable = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(eomFiles)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            int index = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                EomFile eomFile = parser.readValueAs(EomFile.class);
+                int itemIndex = index++;
+                try {
+                    results.submit(() -> mapBatchItem(itemIndex, eomFile, transactionId, preview));
+                } catch (RejectedExecutionException e) {
+                    // the executor has been shut down, so the item is answered without ever being in flight
+                    write(BatchMappingResult.failed(itemIndex, eomFile.getUuid(), HttpStatus.SC_SERVICE_UNAVAILABLE,
+                            "Not mapped: the service is shutting down"), output);
+                    token = parser.nextToken();
+                    continue;
+                }
+                if (++inFlight >= maxBatchItemsInFlight) {
+                    write(take(results), output);
+                    inFlight--;
+                }
+                for (Future<BatchMappingResult> done = results.poll(); done != null; done = results.poll()) {
+                    write(done, output);
+                    inFlight--;
+                }
+                token = parser.nextToken();
+            }
+            if (array && token == null) {
+                throw new JsonParseException("Unexpected end of input: the array is not closed", parser.getCurrentLocation());
+            }
+        } catch (JsonProcessingException e) {
+            unreadable = e.getOriginalMessage();
+        }
+
+        for (; inFlight > 0; inFlight--) {
+            write(take(results), output);
+        }
+        if (unreadable != null) {
+            write(BatchMappingResult.failed(null, null, HttpStatus.SC_BAD_REQUEST, unreadable), output);
+        }
+    }
+
+    private BatchMappingResult mapBatchItem(int index, EomFile eomFile, String transactionId, boolean preview) {
+        String uuid = eomFile.getUuid();
+        try {
+            return BatchMappingResult.mapped(index, uuid, internalComponentsMapper.map(eomFile, transactionId, new Date(), preview));
+        } catch (MethodeMarkedDeletedException e) {
+            return BatchMappingResult.failed(index, uuid, HttpStatus.SC_NOT_FOUND, e.getMessage());
+        } catch (MethodeArticleNotEligibleForPublishException | InvalidMethodeContentException
+                | MethodeArticleUnsupportedSourceCodeException e) {
+            return BatchMappingResult.failed(index, uuid, HttpStatus.SC_UNPROCESSABLE_ENTITY, e.getMessage());
+        } catch (RuntimeException e) {
+            return BatchMappingResult.failed(index, uuid, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    private static Future<BatchMappingResult> take(CompletionService<BatchMappingResult> results) throws IOException {
+        try {
+            return results.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a batch item to be mapped");
+        }
+    }
+
+    private void write(Future<BatchMappingResult> done, JsonGenerator output) throws IOException {
+        BatchMappingResult result;
+        try {
+            result = done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading a mapped batch item");
+        } catch (ExecutionException e) {
+            // mapBatchItem answers every exception itself, so only an Error gets here
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        write(result, output);
+    }
+
+    private void write(BatchMappingResult result, JsonGenerator output) throws IOException {
+        objectMapper.writeValue(output, result);
+        output.writeRaw('\n');
+        output.flush();
+    }
+
 }
\ No newline at end of file
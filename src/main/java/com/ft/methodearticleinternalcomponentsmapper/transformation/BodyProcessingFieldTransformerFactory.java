@@ -1,14 +1,12 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
 import com.ft.bodyprocessing.BodyProcessorChain;
 import com.ft.bodyprocessing.html.Html5SelfClosingTagBodyProcessor;
-import com.ft.bodyprocessing.regex.RegexRemoverBodyProcessor;
-import com.ft.bodyprocessing.regex.RegexReplacerBodyProcessor;
 import com.ft.bodyprocessing.richcontent.VideoMatcher;
 import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
-import com.ft.bodyprocessing.xml.dom.DOMTransformingBodyProcessor;
 import com.ft.bodyprocessing.xml.dom.XPathHandler;
 import com.ft.methodearticleinternalcomponentsmapper.clients.ConcordanceApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
@@ -22,6 +20,8 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import static com.ft.methodearticleinternalcomponentsmapper.transformation.RegexCleanupBodyProcessor.Rule.remove;
+import static com.ft.methodearticleinternalcomponentsmapper.transformation.RegexCleanupBodyProcessor.Rule.replace;
 import static java.util.Arrays.asList;
 
 public class BodyProcessingFieldTransformerFactory implements FieldTransformerFactory {
@@ -33,6 +33,7 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
     private final Map<String, String> contentTypeTemplates;
     private final String apiHost;
     private String canonicalUrlTemplate;
+    private final MetricRegistry metrics;
 
     public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
                                                  final VideoMatcher videoMatcher,
@@ -41,6 +42,21 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
                                                  final String apiHost,
                                                  ConcordanceApiClient concordanceApiClient,
                                                  String canonicalUrlTemplate) {
+        this(documentStoreApiClient, videoMatcher, interactiveGraphicsMatcher, contentTypeTemplates, apiHost,
+                concordanceApiClient, canonicalUrlTemplate, null);
+    }
+
+    /**
+     * @param metrics if not null, each stage of the chain is timed and the size of its input and output recorded.
+     */
+    public BodyProcessingFieldTransformerFactory(final DocumentStoreApiClient documentStoreApiClient,
+                                                 final VideoMatcher videoMatcher,
+                                                 final InteractiveGraphicsMatcher interactiveGraphicsMatcher,
+                                                 final Map<String, String> contentTypeTemplates,
+                                                 final String apiHost,
+                                                 ConcordanceApiClient concordanceApiClient,
+                                                 String canonicalUrlTemplate,
+                                                 MetricRegistry metrics) {
         this.documentStoreApiClient = documentStoreApiClient;
         this.videoMatcher = videoMatcher;
         this.interactiveGraphicsMatcher = interactiveGraphicsMatcher;
@@ -48,6 +64,7 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
         this.apiHost = apiHost;
         xpathHandlers = ImmutableMap.of("//company", new TearSheetLinksTransformer(concordanceApiClient));
         this.canonicalUrlTemplate = canonicalUrlTemplate;
+        this.metrics = metrics;
     }
 
     @Override
@@ -58,30 +75,52 @@ public class BodyProcessingFieldTransformerFactory implements FieldTransformerFa
 
     private List<BodyProcessor> bodyProcessors() {
         return asList(
-                stripByAttributesAndValuesBodyProcessor(),
-                new RegexRemoverBodyProcessor("<em>\\s*</em>"),
-                new RegexRemoverBodyProcessor("<strong>\\s*</strong>"),
-                new RegexRemoverBodyProcessor("<span>\\s*</span>"),
-                new RegexRemoverBodyProcessor("<b>\\s*</b>"),
-                new RegexRemoverBodyProcessor("<(p|li|h[1-6])[^/>]*>(\\s|(<br\\s*/>))*</(p|li|h[1-6])>"),
-                new RegexRemoverBodyProcessor("<ul[^/]*>\\s*</ul>"),
-                new RegexRemoverBodyProcessor("<caption>\\s*</caption>"),
-                new DOMTransformingBodyProcessor(xpathHandlers),
+                timed("strip-by-attributes-and-values", stripByAttributesAndValuesBodyProcessor()),
+                timed("empty-elements-removing", emptyElementsRemovingBodyProcessor()),
+                timed("dom-transforming", domTransformingBodyProcessor()),
+                timed("stax-transforming", stAXTransformingBodyProcessor()),
+                timed("methode-links", new MethodeLinksBodyProcessor(documentStoreApiClient, canonicalUrlTemplate)),
+                timed("xslt", new ModularXsltBodyProcessor(xslts())),
+                timed("ft-tags-links-rewrite", ftTagsLinksRewriteBodyProcessor()),
+                timed("punctuation-and-paragraphs-cleanup", punctuationAndParagraphsCleanupBodyProcessor()),
+                timed("html5-self-closing-tag", new Html5SelfClosingTagBodyProcessor())
+        );
+    }
+
+    private BodyProcessor timed(String stage, BodyProcessor bodyProcessor) {
+        return metrics == null ? bodyProcessor : new TimedBodyProcessor(bodyProcessor, stage, metrics);
+    }
+
+    static BodyProcessor emptyElementsRemovingBodyProcessor() {
+        return new RegexCleanupBodyProcessor(
+                remove("<em>\\s*</em>", "</em>"),
+                remove("<strong>\\s*</strong>", "</strong>"),
+                remove("<span>\\s*</span>", "</span>"),
+                remove("<b>\\s*</b>", "</b>"),
+                remove("<(p|li|h[1-6])[^/>]*>(\\s|(<br\\s*/>))*</(p|li|h[1-6])>", "</p", "</li", "</h"),
+                remove("<ul[^/]*>\\s*</ul>", "</ul>"),
+                remove("<caption>\\s*</caption>", "</caption>")
+        );
+    }
+
+    static BodyProcessor punctuationAndParagraphsCleanupBodyProcessor() {
+        return new RegexCleanupBodyProcessor(
+                replace("\\.\\s*\\.\\s*\\.\\s*", "\u2026"),
+                replace("---", "\u2014", "---"),
+                replace("--", "\u2013", "--"),
+                replace("</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>", "</p>"),
+                remove("(<p>)(\\s|(<br\\s*/>))*(</p>)", "<p>"),
+                replace("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>", "</p>\r", "</p>\n"),
+                replace("</p> +<p>", "</p><p>", "</p> ")
+        );
+    }
+
+    private BodyProcessor domTransformingBodyProcessor() {
+        return new CompositeDOMTransformingBodyProcessor(
+                new XPathHandlersDocumentTransformer(xpathHandlers),
                 new ImageExtractorBodyProcessor(),
                 new PromoBoxExtractorBodyProcessor(),
-                new DynamicContentExtractorBodyProcessor(),
-                stAXTransformingBodyProcessor(),
-                new MethodeLinksBodyProcessor(documentStoreApiClient, canonicalUrlTemplate),
-                new ModularXsltBodyProcessor(xslts()),
-                ftTagsLinksRewriteBodyProcessor(),
-                new RegexReplacerBodyProcessor("\\.\\s*\\.\\s*\\.\\s*", "\u2026"),
-                new RegexReplacerBodyProcessor("---", "\u2014"),
-                new RegexReplacerBodyProcessor("--", "\u2013"),
-                new RegexReplacerBodyProcessor("</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>"),
-                new RegexRemoverBodyProcessor("(<p>)(\\s|(<br\\s*/>))*(</p>)"),
-                new RegexReplacerBodyProcessor("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>"),
-                new RegexReplacerBodyProcessor("</p> +<p>", "</p><p>"),
-                new Html5SelfClosingTagBodyProcessor()
+                new DynamicContentExtractorBodyProcessor()
         );
     }
 
@@ -0,0 +1,50 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
+import org.apache.commons.lang.StringUtils;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.TransformerException;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Applies consecutive DOM rewrites of the body in a single stage: the body is parsed once, each
+ * {@link DocumentTransformer} is applied in order to the same {@link Document}, and the result is serialized once.
+ * <p>
+ * This gives the same output as running the equivalent body processors one after the other, each of which parses
+ * the body and serializes it again with the XML declaration omitted.
+ */
+public class CompositeDOMTransformingBodyProcessor implements BodyProcessor {
+
+    private final List<DocumentTransformer> documentTransformers;
+
+    public CompositeDOMTransformingBodyProcessor(DocumentTransformer... documentTransformers) {
+        this.documentTransformers = asList(documentTransformers);
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        if (StringUtils.isBlank(body)) {
+            return body;
+        }
+
+        try {
+            Document document = XmlResources.parse(body);
+
+            for (DocumentTransformer documentTransformer : documentTransformers) {
+                documentTransformer.transform(document);
+            }
+
+            return XmlResources.serializeStandalone(document);
+        } catch (SAXException | IOException | TransformerException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+}
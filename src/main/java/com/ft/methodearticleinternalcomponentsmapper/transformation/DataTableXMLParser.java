@@ -1,13 +1,13 @@
 package com.ft.methodearticleinternalcomponentsmapper.transformation;
 
 import com.ft.bodyprocessing.BodyProcessingContext;
-import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
+import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.xml.eventhandlers.BaseXMLParser;
 import com.ft.bodyprocessing.xml.eventhandlers.UnexpectedElementStructureException;
 import com.ft.bodyprocessing.xml.eventhandlers.XmlParser;
-import org.apache.commons.lang.StringUtils;
 
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.StartElement;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -15,13 +15,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class DataTableXMLParser extends BaseXMLParser<DataTableData> implements XmlParser<DataTableData> {
 
 	private static final String START_ELEMENT_NAME = "table";
-	private StAXTransformingBodyProcessor stAXTransformingBodyProcessor;
+	private NestedContentXMLEventProcessor nestedContentXMLEventProcessor;
 
-	public DataTableXMLParser(StAXTransformingBodyProcessor stAXTransformingBodyProcessor) {
+	public DataTableXMLParser(NestedContentXMLEventProcessor nestedContentXMLEventProcessor) {
 		super(START_ELEMENT_NAME);
 
-		checkNotNull(stAXTransformingBodyProcessor, "The StAXTransformingBodyProcessor cannot be null.");
-		this.stAXTransformingBodyProcessor = stAXTransformingBodyProcessor;
+		checkNotNull(nestedContentXMLEventProcessor, "The NestedContentXMLEventProcessor cannot be null.");
+		this.nestedContentXMLEventProcessor = nestedContentXMLEventProcessor;
 	}
 
 	@Override
@@ -33,7 +33,7 @@ public class DataTableXMLParser extends BaseXMLParser<DataTableData> implements
 	public void populateBean(DataTableData dataTableData, StartElement nextStartElement, XMLEventReader xmlEventReader,
 							 BodyProcessingContext bodyProcessingContext) throws UnexpectedElementStructureException {
 		if (isElementNamed(nextStartElement.getName(), START_ELEMENT_NAME)) {
-			dataTableData.setBody(transformRawContentToStructuredFormat(parseRawContent(START_ELEMENT_NAME, xmlEventReader, nextStartElement), bodyProcessingContext));
+			dataTableData.setBody(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 	}
 
@@ -48,11 +48,12 @@ public class DataTableXMLParser extends BaseXMLParser<DataTableData> implements
 		return true;
 	}
 
-	private String transformRawContentToStructuredFormat(String unprocessedContent, BodyProcessingContext bodyProcessingContext) {
-		if (!StringUtils.isBlank(unprocessedContent)) {
-			return stAXTransformingBodyProcessor.process(unprocessedContent, bodyProcessingContext);
+	private String transformContentToStructuredFormat(XMLEventReader xmlEventReader, BodyProcessingContext bodyProcessingContext) {
+		try {
+			return nestedContentXMLEventProcessor.process(xmlEventReader, bodyProcessingContext);
+		} catch (XMLStreamException e) {
+			throw new BodyProcessingException(e);
 		}
-		return "";
 	}
 
 }
@@ -0,0 +1,12 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import org.w3c.dom.Document;
+
+/**
+ * Rewrites a parsed body in place. Several of these can be applied to the same {@link Document} by
+ * {@link CompositeDOMTransformingBodyProcessor}, so that the body is parsed and serialized only once.
+ */
+public interface DocumentTransformer {
+
+    void transform(Document document);
+}
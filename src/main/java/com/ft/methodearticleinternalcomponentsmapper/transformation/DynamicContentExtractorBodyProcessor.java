@@ -3,33 +3,23 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.util.XPathExpressionRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 
-public class DynamicContentExtractorBodyProcessor implements BodyProcessor {
+public class DynamicContentExtractorBodyProcessor implements BodyProcessor, DocumentTransformer {
 
     private static final String DYNAMIC_CONTENT = "//p/a[@type='DynamicContent']";
+    private static final XPathExpressionRegistry XPATHS = new XPathExpressionRegistry(DYNAMIC_CONTENT);
 
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
@@ -38,20 +28,27 @@ public class DynamicContentExtractorBodyProcessor implements BodyProcessor {
         }
 
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
+            Document document = XmlResources.parse(body);
 
-            extractDynamicContent(document, xPath);
+            transform(document);
 
-            return serializeBody(document);
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException | XPathExpressionException e) {
+            return XmlResources.serializeStandalone(document);
+        } catch (SAXException | IOException | TransformerException e) {
             throw new BodyProcessingException(e);
         }
     }
 
-    private void extractDynamicContent(Document document, XPath xPath) throws XPathExpressionException {
-        NodeList dynamicContentList = (NodeList) xPath.compile(DYNAMIC_CONTENT).evaluate(document, XPathConstants.NODESET);
+    @Override
+    public void transform(Document document) {
+        try {
+            extractDynamicContent(document);
+        } catch (XPathExpressionException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+
+    private void extractDynamicContent(Document document) throws XPathExpressionException {
+        NodeList dynamicContentList = (NodeList) XPATHS.evaluate(DYNAMIC_CONTENT, document, XPathConstants.NODESET);
         for (int i = 0; i < dynamicContentList.getLength(); i++) {
             Node dynamicContent = dynamicContentList.item(i);
             Node paragraphNode = dynamicContent.getParentNode();
@@ -61,25 +58,4 @@ public class DynamicContentExtractorBodyProcessor implements BodyProcessor {
             paragraphNode.removeChild(dynamicContent);
         }
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
@@ -3,34 +3,22 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.util.XPathExpressionRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.HashSet;
 import java.util.Set;
 
-public class ImageExtractorBodyProcessor implements BodyProcessor {
+public class ImageExtractorBodyProcessor implements BodyProcessor, DocumentTransformer {
 
     private static final String A_TAG = "a";
     private static final String IMAGE_SET = "//p/image-set";
@@ -40,6 +28,9 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
     private static final String IMG_MISSING_SRC = "//img[not(@src)]";
     private static final String IMG_INSIDE_A_TAG = "//p/a/img";
     private static final String IMG = "//p/img";
+    private static final String EMPTY_A_TAG_TEXT = "//a/text()[normalize-space(.) = '']";
+    private static final XPathExpressionRegistry XPATHS = new XPathExpressionRegistry(
+            IMAGE_SET, WEB_MASTER, WEB_INLINE_PICTURE, IMG_EMPTY_SRC, IMG_MISSING_SRC, IMG_INSIDE_A_TAG, IMG, EMPTY_A_TAG_TEXT);
 
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
@@ -48,27 +39,34 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
 
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
-
-            simpleParagraphImageExtract(IMAGE_SET, xPath, document);
-            simpleParagraphImageExtract(WEB_MASTER, xPath, document);
-            simpleParagraphImageExtract(WEB_INLINE_PICTURE, xPath, document);
-            deleteNodeIncludingParentATag(IMG_EMPTY_SRC, xPath, document);
-            deleteNodeIncludingParentATag(IMG_MISSING_SRC, xPath, document);
-            simpleParagraphImageExtract(IMG, xPath, document);
-            paragraphImageExtractWithATagDeletion(xPath, document);
-
-            body = serializeBody(document);
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException | XPathExpressionException e) {
+            Document document = XmlResources.parse(body);
+
+            transform(document);
+
+            body = XmlResources.serializeStandalone(document);
+        } catch (SAXException | IOException | TransformerException e) {
             throw new BodyProcessingException(e);
         }
         return body;
     }
 
-    private void simpleParagraphImageExtract(String expression, XPath xPath, Document document) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(expression).evaluate(document, XPathConstants.NODESET);
+    @Override
+    public void transform(Document document) {
+        try {
+            simpleParagraphImageExtract(IMAGE_SET, document);
+            simpleParagraphImageExtract(WEB_MASTER, document);
+            simpleParagraphImageExtract(WEB_INLINE_PICTURE, document);
+            deleteNodeIncludingParentATag(IMG_EMPTY_SRC, document);
+            deleteNodeIncludingParentATag(IMG_MISSING_SRC, document);
+            simpleParagraphImageExtract(IMG, document);
+            paragraphImageExtractWithATagDeletion(document);
+        } catch (XPathExpressionException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+
+    private void simpleParagraphImageExtract(String expression, Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) XPATHS.evaluate(expression, document, XPathConstants.NODESET);
         for (int i = 0; i < nodeList.getLength(); i++) {
             Node imgNode = nodeList.item(i);
             Node paragraphNode = imgNode.getParentNode();
@@ -79,8 +77,8 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
     }
 
-    private void deleteNodeIncludingParentATag(String expression, XPath xPath, Document document) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(expression).evaluate(document, XPathConstants.NODESET);
+    private void deleteNodeIncludingParentATag(String expression, Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) XPATHS.evaluate(expression, document, XPathConstants.NODESET);
         for (int i = 0; i < nodeList.getLength(); i++) {
             Node imgNode = nodeList.item(i);
             Node parentNode = imgNode.getParentNode();
@@ -93,8 +91,8 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
     }
 
-    private void paragraphImageExtractWithATagDeletion(XPath xPath, Document document) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(IMG_INSIDE_A_TAG).evaluate(document, XPathConstants.NODESET);
+    private void paragraphImageExtractWithATagDeletion(Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) XPATHS.evaluate(IMG_INSIDE_A_TAG, document, XPathConstants.NODESET);
         Set<Node> aTags = new HashSet<>();
         for (int i = 0; i < nodeList.getLength(); i++) {
             Node imgNode = nodeList.item(i);
@@ -107,7 +105,7 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
             aTags.add(aTagNode);
         }
 
-        removeWhitespaceFromATags(xPath, document);
+        removeWhitespaceFromATags(document);
 
         for (Node aTag : aTags) {
             if (!aTag.hasChildNodes()) {
@@ -116,34 +114,12 @@ public class ImageExtractorBodyProcessor implements BodyProcessor {
         }
     }
 
-    private void removeWhitespaceFromATags(XPath xPath, Document document) throws XPathExpressionException {
-        XPathExpression xpathExp = xPath.compile("//a/text()[normalize-space(.) = '']");
-        NodeList emptyTextNodes = (NodeList) xpathExp.evaluate(document, XPathConstants.NODESET);
+    private void removeWhitespaceFromATags(Document document) throws XPathExpressionException {
+        NodeList emptyTextNodes = (NodeList) XPATHS.evaluate(EMPTY_A_TAG_TEXT, document, XPathConstants.NODESET);
 
         for (int i = 0; i < emptyTextNodes.getLength(); i++) {
             Node emptyTextNode = emptyTextNodes.item(i);
             emptyTextNode.getParentNode().removeChild(emptyTextNode);
         }
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
@@ -15,11 +15,15 @@ import com.ft.methodearticleinternalcomponentsmapper.model.AlternativeTitles;
 import com.ft.methodearticleinternalcomponentsmapper.model.Block;
 import com.ft.methodearticleinternalcomponentsmapper.model.Design;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFileAttributes;
 import com.ft.methodearticleinternalcomponentsmapper.model.Image;
 import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 import com.ft.methodearticleinternalcomponentsmapper.model.Summary;
 import com.ft.methodearticleinternalcomponentsmapper.model.TableOfContents;
 import com.ft.methodearticleinternalcomponentsmapper.model.Topper;
+import com.ft.methodearticleinternalcomponentsmapper.util.XPathExpressionRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
 import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
 import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
 import com.ft.uuidutils.DeriveUUID;
@@ -33,36 +37,27 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.SOURCE_ATTR_XPATH;
-import static com.ft.methodearticleinternalcomponentsmapper.model.EomFile.OVERRIDE_ORIGINAL_ATTR_XPATH ;
 import static com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper.Type.CONTENT_PACKAGE;
 import static com.ft.uuidutils.DeriveUUID.Salts.IMAGE_SET;
 
@@ -77,7 +72,6 @@ public class InternalComponentsMapper {
     private static final String XPATH_GUID = "ObjectMetadata/WiresIndexing/serviceid";
     private static final String XPATH_POST_ID = "ObjectMetadata/WiresIndexing/ref_field";
     private static final String XPATH_LIST_ITEM_TYPE = "ObjectMetadata/WiresIndexing/category";
-    private static final String XPATH_CONTENT_PACKAGE = "/ObjectMetadata/OutputChannels/DIFTcom/isContentPackage";
     private static final String XPATH_ARTICLE_IMAGE = "/ObjectMetadata/OutputChannels/DIFTcom/DIFTcomArticleImage";
     private static final String XPATH_DESIGN_THEME_OLD = "/doc/lead/lead-components/content-package/@design-theme";
     private static final String XPATH_DESIGN_THEME = "/ObjectMetadata/OutputChannels/DIFTcom/DesignTheme";
@@ -86,11 +80,24 @@ public class InternalComponentsMapper {
     private static final String XPATH_PUSH_NOTIFICATION_TEXT = "/doc/lead/push-notification-text/ln";
     private static final String BLOCKS_XPATH = "/doc/blocks//block";
     private static final String XPATH_ORIGINAL_UUID = "ObjectMetadata/EditorialNotes/OriginalUUID";
+    private static final String XPATH_MAIN_IMAGE_FILEREF = "/doc/lead/lead-images/web-master/@fileref";
+    private static final String XPATH_CONTENT_PACKAGE_SEQUENCE = "/doc/lead/lead-components/content-package/@sequence";
+    private static final String XPATH_CONTENT_PACKAGE_LABEL = "/doc/lead/lead-components/content-package/@label";
+    private static final String XPATH_CONTENT_PACKAGE_NEXT = "/doc/lead/lead-components/content-package/content-package-next";
+    private static final String XPATH_TOPPER_LAYOUT = "/doc/lead/lead-components/topper/@layout";
+    private static final String XPATH_TOPPER_HEADLINE = "/doc/lead/lead-components/topper/topper-headline";
+    private static final String XPATH_TOPPER_STANDFIRST = "/doc/lead/lead-components/topper/topper-standfirst";
+    private static final String XPATH_TOPPER_BACKGROUND_COLOUR = "/doc/lead/lead-components/topper/@background-colour";
+    private static final String XPATH_LEAD_IMAGE_FILEREF = "/doc/lead/lead-image-set/lead-image-%s/@fileref";
+    private static final String XPATH_SUMMARY_DISPLAY_POSITION = SUMMARY_TAG_XPATH + "/@display-position";
+    private static final String XPATH_BLOCK_NAME = "block-name";
+    private static final String XPATH_BLOCK_HTML_VALUE = "block-html-value";
 
     private static final String NO_PICTURE_FLAG = "No picture";
     private static final String DEFAULT_IMAGE_ATTRIBUTE_DATA_EMBEDDED = "data-embedded";
     private static final String IMAGE_SET_TYPE = "http://www.ft.com/ontology/content/ImageSet";
     private static final String BODY_TAG_XPATH = "/doc/story/text/body";
+    private static final String[] LEAD_IMAGE_LABELS = new String[]{"square", "standard", "wide"};
     private static final String DEFAULT_DESIGN_THEME = "basic";
     private static final String DEFAULT_DESIGN_LAYOUT = "default";
     private static final String START_BODY = "<body";
@@ -105,12 +112,27 @@ public class InternalComponentsMapper {
     private static final String UUID_REGEX = "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$";
     private static final Pattern UUID_PATTERN = Pattern.compile(UUID_REGEX);
 
+    static final XPathExpressionRegistry XPATHS = new XPathExpressionRegistry(
+            SUMMARY_TAG_XPATH, SHORT_TEASER_TAG_XPATH, PROMOTIONAL_TITLE_VARIANT_TAG_XPATH,
+            PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH, XPATH_GUID, XPATH_POST_ID, XPATH_LIST_ITEM_TYPE,
+            XPATH_ARTICLE_IMAGE, XPATH_DESIGN_THEME_OLD, XPATH_DESIGN_THEME, XPATH_DESIGN_LAYOUT,
+            XPATH_PUSH_NOTIFICATION_COHORT, XPATH_PUSH_NOTIFICATION_TEXT, BLOCKS_XPATH, XPATH_ORIGINAL_UUID,
+            XPATH_MAIN_IMAGE_FILEREF, XPATH_CONTENT_PACKAGE_SEQUENCE,
+            XPATH_CONTENT_PACKAGE_LABEL, XPATH_CONTENT_PACKAGE_NEXT, XPATH_TOPPER_LAYOUT, XPATH_TOPPER_HEADLINE,
+            XPATH_TOPPER_STANDFIRST, XPATH_TOPPER_BACKGROUND_COLOUR,
+            String.format(XPATH_LEAD_IMAGE_FILEREF, LEAD_IMAGE_LABELS[0]),
+            String.format(XPATH_LEAD_IMAGE_FILEREF, LEAD_IMAGE_LABELS[1]),
+            String.format(XPATH_LEAD_IMAGE_FILEREF, LEAD_IMAGE_LABELS[2]),
+            XPATH_SUMMARY_DISPLAY_POSITION, BODY_TAG_XPATH, XPATH_BLOCK_NAME, XPATH_BLOCK_HTML_VALUE
+    );
+
     private final FieldTransformer bodyTransformer;
     private final BodyProcessor htmlFieldProcessor;
     private final BlogUuidResolver blogUuidResolver;
     private final DocumentStoreApiClient documentStoreApiClient;
     private final Map<String, MethodeArticleValidator> articleValidators;
     private final String apiHost;
+    private final ExecutorService remoteCallsExecutor;
 
     public InternalComponentsMapper(FieldTransformer bodyTransformer,
                                     BodyProcessor htmlFieldProcessor,
@@ -118,118 +140,211 @@ public class InternalComponentsMapper {
                                     DocumentStoreApiClient documentStoreApiClient,
                                     Map<String, MethodeArticleValidator> articleValidators,
                                     String apiHost) {
+        this(bodyTransformer, htmlFieldProcessor, blogUuidResolver, documentStoreApiClient, articleValidators, apiHost, null);
+    }
+
+    /**
+     * @param remoteCallsExecutor if not null, the publishing status and content placeholder UUID lookups run on this
+     *                            executor while the article is transformed, and are joined at the end. Work stops as
+     *                            soon as the content is found to be deleted or ineligible for publishing.
+     */
+    public InternalComponentsMapper(FieldTransformer bodyTransformer,
+                                    BodyProcessor htmlFieldProcessor,
+                                    BlogUuidResolver blogUuidResolver,
+                                    DocumentStoreApiClient documentStoreApiClient,
+                                    Map<String, MethodeArticleValidator> articleValidators,
+                                    String apiHost,
+                                    ExecutorService remoteCallsExecutor) {
         this.bodyTransformer = bodyTransformer;
         this.htmlFieldProcessor = htmlFieldProcessor;
         this.blogUuidResolver = blogUuidResolver;
         this.documentStoreApiClient = documentStoreApiClient;
         this.articleValidators = articleValidators;
         this.apiHost = apiHost;
+        this.remoteCallsExecutor = remoteCallsExecutor;
     }
 
     public InternalComponents map(EomFile eomFile, String transactionId, Date lastModified, boolean preview) {
+        return map(new ParsedEomFile(eomFile), transactionId, lastModified, preview);
+    }
+
+    public InternalComponents map(ParsedEomFile parsedEomFile, String transactionId, Date lastModified, boolean preview) {
         try {
+            final EomFile eomFile = parsedEomFile.getEomFile();
             UUID uuid = UUID.fromString(eomFile.getUuid());
-            final XPath xPath = XPathFactory.newInstance().newXPath();
-            final Document attributesDocument = getAttributesDocument(eomFile);
-            final Document valueDocument = getValueDocument(eomFile);
+            final Document attributesDocument = parsedEomFile.getAttributesDocument();
+            final Document valueDocument = parsedEomFile.getValueDocument();
 
-            String sourceCode = xPath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
+            final EomFileAttributes eomFileAttributes = parsedEomFile.getEomFileAttributes();
+            String sourceCode = eomFileAttributes.getSourceCode();
             if (!SourceCode.FT.equals(sourceCode) && !SourceCode.CONTENT_PLACEHOLDER.equals(sourceCode) && !SourceCode.DYNAMIC_CONTENT.equals(sourceCode)) {
                 throw new MethodeArticleNotEligibleForPublishException(uuid);
             }
 
-            String overrideOriginalStr = xPath.evaluate(OVERRIDE_ORIGINAL_ATTR_XPATH, attributesDocument);
+            String overrideOriginalStr = eomFileAttributes.getOverrideOriginal();
             if (sourceCode.equals(SourceCode.CONTENT_PLACEHOLDER) && overrideOriginalStr != null
                     && (overrideOriginalStr.equals("false") || overrideOriginalStr.equals("False"))) {
                 throw new MethodeArticleInternalComponentsMapperException("Could not override internal content for CPH because OverrideOriginal is not set to true");
             }
 
 
-            final String type = determineType(xPath, attributesDocument, sourceCode);
+            final String type = determineType(eomFileAttributes, sourceCode);
 
             Boolean previewParam = SourceCode.FT.equals(sourceCode) || SourceCode.DYNAMIC_CONTENT.equals(sourceCode) ? preview : null;
-            PublishingStatus status = articleValidators.get(sourceCode).getPublishingStatus(eomFile, transactionId, previewParam);
-            switch (status) {
-                case INELIGIBLE:
-                    throw new MethodeArticleNotEligibleForPublishException(uuid);
-                case DELETED:
-                    throw new MethodeMarkedDeletedException(uuid, type);
+            final MethodeArticleValidator articleValidator = articleValidators.get(sourceCode);
+            final Future<PublishingStatus> publishingStatus = callRemote(() -> articleValidator.getPublishingStatus(eomFile, transactionId, previewParam));
+            Future<String> contentPlaceholderUuid = null;
+            try {
+                checkPublishingStatusIfDone(publishingStatus, uuid, type);
+                if (remoteCallsExecutor != null && isContentPlaceholder(sourceCode)) {
+                    // overlaps the lookup with the extraction below; made inline, it waits until the fields are extracted
+                    contentPlaceholderUuid = callRemote(getReplacementUuidForContentPlaceholder(uuid.toString(), transactionId, attributesDocument));
+                }
+
+                final Design design = extractDesign(valueDocument, attributesDocument);
+                final TableOfContents tableOfContents = extractTableOfContents(valueDocument);
+                final List<Image> leadImages = extractImages(valueDocument);
+                final Topper topper = extractTopper(valueDocument);
+                final String unpublishedContentDescription = extractUnpublishedContentDescription(valueDocument);
+                final AlternativeTitles alternativeTitles = AlternativeTitles.builder()
+                        .withShortTeaser(Strings.nullToEmpty(XPATHS.evaluate(SHORT_TEASER_TAG_XPATH, valueDocument)).trim())
+                        .withPromotionalTitleVariant(Strings.nullToEmpty(XPATHS.evaluate(PROMOTIONAL_TITLE_VARIANT_TAG_XPATH, valueDocument)).trim())
+                        .build();
+                final AlternativeStandfirsts alternativeStandfirsts = AlternativeStandfirsts.builder()
+                        .withPromotionalStandfirstVariant(Strings.nullToEmpty(XPATHS.evaluate(PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH, valueDocument)).trim())
+                        .build();
+                final Summary summary = extractSummary(valueDocument, transactionId, uuid.toString());
+                final String pushNotificationsCohort = extractPushNotificationsCohort(attributesDocument);
+                final String pushNotificationsText = extractPushNotificationsText(valueDocument);
+                final List<Block> blocks = getBlocks(valueDocument, type, transactionId);
+
+                checkPublishingStatusIfDone(publishingStatus, uuid, type);
+
+                InternalComponents.Builder internalComponentsBuilder = InternalComponents.builder()
+                        .withUuid(uuid.toString())
+                        .withPublishReference(transactionId)
+                        .withLastModified(lastModified)
+                        .withDesign(design)
+                        .withTableOfContents(tableOfContents)
+                        .withTopper(topper)
+                        .withLeadImages(leadImages)
+                        .withUnpublishedContentDescription(unpublishedContentDescription)
+                        .withAlternativeTitles(alternativeTitles)
+                        .withAlternativeStandfirsts(alternativeStandfirsts)
+                        .withSummary(summary)
+                        .withPushNotificationsCohort(pushNotificationsCohort)
+                        .withPushNotificationsText(pushNotificationsText)
+                        .withBlocks(blocks);
+
+                if (isContentPlaceholder(sourceCode)) {
+                    if (contentPlaceholderUuid == null) {
+                        contentPlaceholderUuid = callRemote(getReplacementUuidForContentPlaceholder(uuid.toString(), transactionId, attributesDocument));
+                    }
+                    checkPublishingStatus(publishingStatus, uuid, type);
+                    return internalComponentsBuilder.withUuid(getResult(contentPlaceholderUuid)).build();
+                }
+
+                if (SourceCode.DYNAMIC_CONTENT.equals(sourceCode)) {
+                    checkPublishingStatus(publishingStatus, uuid, type);
+                    return internalComponentsBuilder.build();
+                }
+
+                String sourceBodyXML = retrieveField(BODY_TAG_XPATH, valueDocument);
+                final String transformedBodyXML = transformBody(sourceBodyXML, type, attributesDocument, valueDocument, transactionId, uuid, preview);
+
+                checkPublishingStatus(publishingStatus, uuid, type);
+                return internalComponentsBuilder
+                        .withXMLBody(transformedBodyXML)
+                        .build();
+            } catch (Exception e) {
+                // the publishing status decides the outcome before anything else, as it does when the validator is called first
+                cancel(contentPlaceholderUuid);
+                checkPublishingStatus(publishingStatus, uuid, type);
+                throw e;
             }
+        } catch (ParserConfigurationException | SAXException | XPathExpressionException | TransformerException | IOException | XMLStreamException e) {
+            throw new TransformationException(e);
+        }
+    }
 
-            final Design design = extractDesign(xPath, valueDocument, attributesDocument);
-            final TableOfContents tableOfContents = extractTableOfContents(xPath, valueDocument);
-            final List<Image> leadImages = extractImages(xPath, valueDocument, "/doc/lead/lead-image-set/lead-image-");
-            final Topper topper = extractTopper(xPath, valueDocument);
-            final String unpublishedContentDescription = extractUnpublishedContentDescription(xPath, valueDocument);
-            final AlternativeTitles alternativeTitles = AlternativeTitles.builder()
-                    .withShortTeaser(Strings.nullToEmpty(xPath.evaluate(SHORT_TEASER_TAG_XPATH, valueDocument)).trim())
-                    .withPromotionalTitleVariant(Strings.nullToEmpty(xPath.evaluate(PROMOTIONAL_TITLE_VARIANT_TAG_XPATH, valueDocument)).trim())
-                    .build();
-            final AlternativeStandfirsts alternativeStandfirsts = AlternativeStandfirsts.builder()
-                    .withPromotionalStandfirstVariant(Strings.nullToEmpty(xPath.evaluate(PROMOTIONAL_STANDFIRST_VARIANT_TAG_XPATH, valueDocument)).trim())
-                    .build();
-            final Summary summary = extractSummary(xPath, valueDocument, transactionId, uuid.toString());
-            final String pushNotificationsCohort = extractPushNotificationsCohort(xPath, attributesDocument);
-            final String pushNotificationsText = extractPushNotificationsText(xPath, valueDocument);
-            final List<Block> blocks = getBlocks(xPath, valueDocument, type, transactionId);
-
-            InternalComponents.Builder internalComponentsBuilder = InternalComponents.builder()
-                    .withUuid(uuid.toString())
-                    .withPublishReference(transactionId)
-                    .withLastModified(lastModified)
-                    .withDesign(design)
-                    .withTableOfContents(tableOfContents)
-                    .withTopper(topper)
-                    .withLeadImages(leadImages)
-                    .withUnpublishedContentDescription(unpublishedContentDescription)
-                    .withAlternativeTitles(alternativeTitles)
-                    .withAlternativeStandfirsts(alternativeStandfirsts)
-                    .withSummary(summary)
-                    .withPushNotificationsCohort(pushNotificationsCohort)
-                    .withPushNotificationsText(pushNotificationsText)
-                    .withBlocks(blocks);
-
-            if (isContentPlaceholder(sourceCode)) {
-                String replacedUuid = getReplacementUuidForContentPlaceholder(uuid.toString(), transactionId, xPath, attributesDocument);
-                return internalComponentsBuilder.withUuid(replacedUuid).build();
-            }
+    private boolean isContentPlaceholder(String source) {
+        return SourceCode.CONTENT_PLACEHOLDER.equals(source);
+    }
 
-            if (SourceCode.DYNAMIC_CONTENT.equals(sourceCode)) {
-                return internalComponentsBuilder.build();
-            }
+    /**
+     * Runs a call to a remote service on the remote calls executor, if there is one, so that it overlaps with the
+     * local transformation. Without an executor the call completes before this method returns.
+     */
+    private <T> Future<T> callRemote(Callable<T> call) {
+        if (remoteCallsExecutor == null) {
+            FutureTask<T> future = new FutureTask<>(call);
+            future.run();
+            return future;
+        }
+        return remoteCallsExecutor.submit(call);
+    }
+
+    private void checkPublishingStatusIfDone(Future<PublishingStatus> publishingStatus, UUID uuid, String type) {
+        if (publishingStatus.isDone()) {
+            checkPublishingStatus(publishingStatus, uuid, type);
+        }
+    }
 
-            String sourceBodyXML = retrieveField(xPath, BODY_TAG_XPATH, valueDocument);
-            final String transformedBodyXML = transformBody(xPath, sourceBodyXML, attributesDocument, valueDocument, transactionId, uuid, preview);
+    private void checkPublishingStatus(Future<PublishingStatus> publishingStatus, UUID uuid, String type) {
+        switch (getResult(publishingStatus)) {
+            case INELIGIBLE:
+                throw new MethodeArticleNotEligibleForPublishException(uuid);
+            case DELETED:
+                throw new MethodeMarkedDeletedException(uuid, type);
+        }
+    }
 
-            return internalComponentsBuilder
-                    .withXMLBody(transformedBodyXML)
-                    .build();
-        } catch (ParserConfigurationException | SAXException | XPathExpressionException | TransformerException | IOException e) {
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new TransformationException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransformationException(cause);
         }
     }
 
-    private boolean isContentPlaceholder(String source) {
-        return SourceCode.CONTENT_PLACEHOLDER.equals(source);
+    private static void cancel(Future<?> future) {
+        if (future != null) {
+            future.cancel(true);
+        }
     }
 
-    private String getReplacementUuidForContentPlaceholder(String cphUuid, String transactionId, XPath xPath,
-                                                           Document attributesDocument) throws XPathExpressionException {
-        String originalUuid = extractOriginalUuid(cphUuid, xPath, attributesDocument);
+    /**
+     * Reads what is needed from the attributes document on the calling thread, since DOM reads are not thread-safe,
+     * and returns the remote lookup to run.
+     */
+    private Callable<String> getReplacementUuidForContentPlaceholder(String cphUuid, String transactionId,
+                                                                     Document attributesDocument) throws XPathExpressionException {
+        String originalUuid = extractOriginalUuid(cphUuid, attributesDocument);
 
         if (Strings.isNullOrEmpty(originalUuid)) {
-            if (isBlog(xPath, attributesDocument)) {
-                return resolveBlogPlaceholderUuid(attributesDocument, transactionId, cphUuid, xPath);
+            if (isBlog(attributesDocument)) {
+                String referenceId = extractRefField(attributesDocument, cphUuid);
+                String guid = extractServiceId(attributesDocument, cphUuid);
+                return () -> blogUuidResolver.resolveUuid(guid, referenceId, transactionId);
             }
             //if it's not a blog it means that we are dealing with an external CPH and we keep the provided uuid
-        } else {
-            return resolvePlaceholderUuid(originalUuid, cphUuid, transactionId);
+            return () -> cphUuid;
         }
-        return cphUuid;
+        return () -> resolvePlaceholderUuid(originalUuid, cphUuid, transactionId);
     }
 
-    private String extractOriginalUuid(String cphUuid, XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        String originalUuid = xPath.evaluate(XPATH_ORIGINAL_UUID, attributesDocument);
+    private String extractOriginalUuid(String cphUuid, Document attributesDocument) throws XPathExpressionException {
+        String originalUuid = XPATHS.evaluate(XPATH_ORIGINAL_UUID, attributesDocument);
         if (!Strings.isNullOrEmpty(originalUuid)) {
             if (!UUID_PATTERN.matcher(originalUuid).matches()) {
                 String errMsg = String.format("CPH with uuid: %s doesn't contain a valid OriginalUUID: %s.", cphUuid, originalUuid);
@@ -240,14 +355,8 @@ public class InternalComponentsMapper {
         return originalUuid;
     }
 
-    private boolean isBlog(XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        return BLOG_CATEGORIES.contains(extractListItemWiredIndexType(xPath, attributesDocument));
-    }
-
-    private String resolveBlogPlaceholderUuid(Document attributesDocument, String transactionId, String uuid, XPath xPath) throws XPathExpressionException {
-        String referenceId = extractRefField(xPath, attributesDocument, uuid);
-        String guid = extractServiceId(xPath, attributesDocument, uuid);
-        return blogUuidResolver.resolveUuid(guid, referenceId, transactionId);
+    private boolean isBlog(Document attributesDocument) throws XPathExpressionException {
+        return BLOG_CATEGORIES.contains(extractListItemWiredIndexType(attributesDocument));
     }
 
     private String resolvePlaceholderUuid(String originalUuid, String cphUuid, String transactionId) {
@@ -265,8 +374,8 @@ public class InternalComponentsMapper {
         }
     }
 
-    private String retrieveField(XPath xpath, String expression, Document eomFileDocument) throws TransformerException, XPathExpressionException {
-        final Node node = (Node) xpath.evaluate(expression, eomFileDocument, XPathConstants.NODE);
+    private String retrieveField(String expression, Document eomFileDocument) throws TransformerException, XPathExpressionException {
+        final Node node = (Node) XPATHS.evaluate(expression, eomFileDocument, XPathConstants.NODE);
         return getNodeAsString(node);
     }
 
@@ -275,28 +384,21 @@ public class InternalComponentsMapper {
     }
 
     private String convertNodeToStringReturningEmptyIfNull(Node node) throws TransformerException {
-        StringWriter writer = new StringWriter();
-        final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
-        return writer.toString();
+        return XmlResources.serialize(node);
     }
 
-    private String transformBody(XPath xpath, String sourceBodyXML, Document attributesDocument, Document valueDocument, String transactionId, UUID uuid, boolean preview) throws ParserConfigurationException, IOException, SAXException, XPathExpressionException, TransformerException {
+    private String transformBody(String sourceBodyXML, String type, Document attributesDocument, Document valueDocument, String transactionId, UUID uuid, boolean preview) throws ParserConfigurationException, IOException, SAXException, XPathExpressionException, TransformerException {
         TransformationMode mode = preview ? TransformationMode.PREVIEW : TransformationMode.PUBLISH;
-        String sourceCode = xpath.evaluate(SOURCE_ATTR_XPATH, attributesDocument);
-        final String type = determineType(xpath, attributesDocument, sourceCode);
 
         final String transformedBody = transformField(sourceBodyXML, bodyTransformer, transactionId, Maps.immutableEntry("uuid", uuid.toString()), Maps.immutableEntry("apiHost", apiHost));
         final String validatedTransformedBody = validateBody(mode, type, transformedBody, uuid);
-        final String postProcessedTransformedBody = putMainImageReferenceInBodyXml(xpath, attributesDocument, generateMainImageUuid(xpath, valueDocument), validatedTransformedBody);
+        final String postProcessedTransformedBody = putMainImageReferenceInBodyXml(attributesDocument, generateMainImageUuid(valueDocument), validatedTransformedBody);
 
         return postProcessedTransformedBody;
     }
 
-    private String determineType(final XPath xpath, final Document attributesDocument, String sourceCode) throws XPathExpressionException {
-        final String isContentPackage = xpath.evaluate(XPATH_CONTENT_PACKAGE, attributesDocument);
+    private String determineType(final EomFileAttributes eomFileAttributes, String sourceCode) {
+        final String isContentPackage = eomFileAttributes.getIsContentPackage();
         if (Boolean.TRUE.toString().equalsIgnoreCase(isContentPackage)) {
             return CONTENT_PACKAGE;
         }
@@ -348,40 +450,27 @@ public class InternalComponentsMapper {
         return wrappedBody.substring(index, wrappedBody.length() - END_BODY.length()).trim();
     }
 
-    private String generateMainImageUuid(XPath xpath, Document eomFileDocument) throws XPathExpressionException {
-        final String imageUuid = StringUtils.substringAfter(xpath.evaluate("/doc/lead/lead-images/web-master/@fileref", eomFileDocument), "uuid=");
+    private String generateMainImageUuid(Document eomFileDocument) throws XPathExpressionException {
+        final String imageUuid = StringUtils.substringAfter(XPATHS.evaluate(XPATH_MAIN_IMAGE_FILEREF, eomFileDocument), "uuid=");
         if (!Strings.isNullOrEmpty(imageUuid)) {
             return DeriveUUID.with(IMAGE_SET).from(UUID.fromString(imageUuid)).toString();
         }
         return null;
     }
 
-    private String putMainImageReferenceInBodyXml(XPath xpath, Document attributesDocument, String mainImageUUID, String body) throws XPathExpressionException,
+    private String putMainImageReferenceInBodyXml(Document attributesDocument, String mainImageUUID, String body) throws XPathExpressionException,
             TransformerException, ParserConfigurationException, SAXException, IOException {
 
         if (mainImageUUID != null) {
-
-            InputSource inputSource = new InputSource();
-            inputSource.setCharacterStream(new StringReader(body));
-
-            Element bodyNode = getDocumentBuilder()
-                    .parse(inputSource)
-                    .getDocumentElement();
-            final String flag = xpath.evaluate(XPATH_ARTICLE_IMAGE, attributesDocument);
+            final String flag = XPATHS.evaluate(XPATH_ARTICLE_IMAGE, attributesDocument);
             if (!NO_PICTURE_FLAG.equalsIgnoreCase(flag)) {
+                Element bodyNode = XmlResources.parse(body).getDocumentElement();
                 return putMainImageReferenceInBodyNode(bodyNode, mainImageUUID);
             }
         }
         return body;
     }
 
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-        return documentBuilderFactory.newDocumentBuilder();
-    }
-
     private String putMainImageReferenceInBodyNode(Node bodyNode, String mainImageUUID) throws TransformerException {
         Element newElement = bodyNode.getOwnerDocument().createElement("ft-content");
         newElement.setAttribute("url", String.format("http://%s/content/%s", apiHost, mainImageUUID));
@@ -391,25 +480,25 @@ public class InternalComponentsMapper {
         return getNodeAsHTML5String(bodyNode);
     }
 
-    private Design extractDesign(final XPath xPath, final Document valueDoc, final Document attributesDoc) throws XPathExpressionException {
-        final String designThemeOld = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_THEME_OLD, valueDoc)).trim().toLowerCase();
-        String designTheme = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_THEME, attributesDoc)).trim().toLowerCase();
+    private Design extractDesign(final Document valueDoc, final Document attributesDoc) throws XPathExpressionException {
+        final String designThemeOld = Strings.nullToEmpty(XPATHS.evaluate(XPATH_DESIGN_THEME_OLD, valueDoc)).trim().toLowerCase();
+        String designTheme = Strings.nullToEmpty(XPATHS.evaluate(XPATH_DESIGN_THEME, attributesDoc)).trim().toLowerCase();
         if (designTheme.isEmpty()) {
             designTheme = designThemeOld;
         }
         if (designTheme.isEmpty()) {
             designTheme = DEFAULT_DESIGN_THEME;
         }
-        String designLayout = Strings.nullToEmpty(xPath.evaluate(XPATH_DESIGN_LAYOUT, attributesDoc)).trim().toLowerCase();
+        String designLayout = Strings.nullToEmpty(XPATHS.evaluate(XPATH_DESIGN_LAYOUT, attributesDoc)).trim().toLowerCase();
         if (designLayout.isEmpty()) {
             designLayout = DEFAULT_DESIGN_LAYOUT;
         }
         return new Design(designTheme, designLayout);
     }
 
-    private TableOfContents extractTableOfContents(final XPath xPath, final Document eomFileDoc) throws XPathExpressionException {
-        final String sequence = Strings.nullToEmpty(xPath.evaluate("/doc/lead/lead-components/content-package/@sequence", eomFileDoc)).trim();
-        final String labelType = Strings.nullToEmpty(xPath.evaluate("/doc/lead/lead-components/content-package/@label", eomFileDoc)).trim();
+    private TableOfContents extractTableOfContents(final Document eomFileDoc) throws XPathExpressionException {
+        final String sequence = Strings.nullToEmpty(XPATHS.evaluate(XPATH_CONTENT_PACKAGE_SEQUENCE, eomFileDoc)).trim();
+        final String labelType = Strings.nullToEmpty(XPATHS.evaluate(XPATH_CONTENT_PACKAGE_LABEL, eomFileDoc)).trim();
 
         if (Strings.isNullOrEmpty(sequence) && Strings.isNullOrEmpty(labelType)) {
             return null;
@@ -418,20 +507,18 @@ public class InternalComponentsMapper {
         return new TableOfContents(sequence, labelType);
     }
 
-    private Topper extractTopper(final XPath xpath, final Document eomFileDoc) throws XPathExpressionException {
-        final String topperBasePath = "/doc/lead/lead-components/topper";
-
-        final String layout = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/@layout", eomFileDoc)).trim();
+    private Topper extractTopper(final Document eomFileDoc) throws XPathExpressionException {
+        final String layout = Strings.nullToEmpty(XPATHS.evaluate(XPATH_TOPPER_LAYOUT, eomFileDoc)).trim();
 
         //a topper is valid only if the theme attribute is present. Since layout is the new value for theme, we need to check both
         if (Strings.isNullOrEmpty(layout)) {
             return null;
         }
 
-        final String headline = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/topper-headline", eomFileDoc)).trim();
-        final String standfirst = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/topper-standfirst", eomFileDoc)).trim();
+        final String headline = Strings.nullToEmpty(XPATHS.evaluate(XPATH_TOPPER_HEADLINE, eomFileDoc)).trim();
+        final String standfirst = Strings.nullToEmpty(XPATHS.evaluate(XPATH_TOPPER_STANDFIRST, eomFileDoc)).trim();
 
-        final String backgroundColour = Strings.nullToEmpty(xpath.evaluate(topperBasePath + "/@background-colour", eomFileDoc)).trim();
+        final String backgroundColour = Strings.nullToEmpty(XPATHS.evaluate(XPATH_TOPPER_BACKGROUND_COLOUR, eomFileDoc)).trim();
 
         return new Topper(
                 headline,
@@ -440,8 +527,8 @@ public class InternalComponentsMapper {
                 layout);
     }
 
-    private String extractUnpublishedContentDescription(final XPath xpath, final Document eomFileDoc) throws XPathExpressionException, TransformerException {
-        final Node contentPackageNextNode = (Node) xpath.evaluate("/doc/lead/lead-components/content-package/content-package-next", eomFileDoc, XPathConstants.NODE);
+    private String extractUnpublishedContentDescription(final Document eomFileDoc) throws XPathExpressionException, TransformerException {
+        final Node contentPackageNextNode = (Node) XPATHS.evaluate(XPATH_CONTENT_PACKAGE_NEXT, eomFileDoc, XPathConstants.NODE);
         if (contentPackageNextNode == null) {
             return null;
         }
@@ -455,12 +542,11 @@ public class InternalComponentsMapper {
         return Strings.isNullOrEmpty(unpublishedContentDescription) ? null : unpublishedContentDescription;
     }
 
-    private List<Image> extractImages(XPath xpath, Document doc, String basePath) throws XPathExpressionException {
-        String[] labels = new String[]{"square", "standard", "wide"};
+    private List<Image> extractImages(Document doc) throws XPathExpressionException {
         List<Image> images = new ArrayList<>();
 
-        for (String label : labels) {
-            String id = getImageId(xpath, doc, basePath + label);
+        for (String label : LEAD_IMAGE_LABELS) {
+            String id = getImageId(doc, String.format(XPATH_LEAD_IMAGE_FILEREF, label));
             if (Strings.isNullOrEmpty(id)) {
                 continue;
             }
@@ -470,9 +556,9 @@ public class InternalComponentsMapper {
         return images;
     }
 
-    private String getImageId(XPath xpath, Document doc, String topperImgBasePath) throws XPathExpressionException {
+    private String getImageId(Document doc, String imageFileRefPath) throws XPathExpressionException {
         String topperImageId = null;
-        String imageFileRef = Strings.nullToEmpty(xpath.evaluate(topperImgBasePath + "/@fileref", doc)).trim();
+        String imageFileRef = Strings.nullToEmpty(XPATHS.evaluate(imageFileRefPath, doc)).trim();
         if (imageFileRef.contains("uuid=")) {
             topperImageId = imageFileRef.substring(imageFileRef.lastIndexOf("uuid=") + "uuid=".length());
         }
@@ -485,25 +571,7 @@ public class InternalComponentsMapper {
     }
 
     private String convertNodeToString(final Node node) throws TransformerException {
-        final StringWriter writer = new StringWriter();
-        final Transformer transformer = TransformerFactory.newInstance().newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
-        return writer.toString();
-    }
-
-    private Document getValueDocument(EomFile eomFile) throws ParserConfigurationException, SAXException, IOException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        return documentBuilder.parse(new ByteArrayInputStream(eomFile.getValue()));
-    }
-
-    private Document getAttributesDocument(EomFile eomFile) throws ParserConfigurationException, SAXException, IOException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        return documentBuilder.parse(new InputSource(new StringReader(eomFile.getAttributes())));
+        return XmlResources.serialize(node);
     }
 
     private String getNodeValueAsString(Node node) throws TransformerException {
@@ -512,28 +580,28 @@ public class InternalComponentsMapper {
                 .replace("<" + node.getNodeName() + "/>", "");
     }
 
-    private String extractListItemWiredIndexType(XPath xPath, Document attributesDocument) throws XPathExpressionException {
-        return xPath.evaluate(XPATH_LIST_ITEM_TYPE, attributesDocument);
+    private String extractListItemWiredIndexType(Document attributesDocument) throws XPathExpressionException {
+        return XPATHS.evaluate(XPATH_LIST_ITEM_TYPE, attributesDocument);
     }
 
-    private String extractServiceId(XPath xPath, Document attributesDocument, String uuid) throws XPathExpressionException {
-        final String serviceId = xPath.evaluate(XPATH_GUID, attributesDocument);
+    private String extractServiceId(Document attributesDocument, String uuid) throws XPathExpressionException {
+        final String serviceId = XPATHS.evaluate(XPATH_GUID, attributesDocument);
         if (Strings.isNullOrEmpty(serviceId)) {
             throw new MethodeMissingFieldException(uuid, "serviceid");
         }
         return serviceId;
     }
 
-    private String extractRefField(XPath xPath, Document attributesDocument, String uuid) throws XPathExpressionException {
-        final String refField = xPath.evaluate(XPATH_POST_ID, attributesDocument);
+    private String extractRefField(Document attributesDocument, String uuid) throws XPathExpressionException {
+        final String refField = XPATHS.evaluate(XPATH_POST_ID, attributesDocument);
         if (Strings.isNullOrEmpty(refField)) {
             throw new MethodeMissingFieldException(uuid, "ref_field");
         }
         return refField;
     }
 
-    private String extractPushNotificationsCohort(XPath xpath, Document attributesDocument) throws XPathExpressionException {
-        String pushNotificationsCohort = Strings.nullToEmpty(xpath.evaluate(XPATH_PUSH_NOTIFICATION_COHORT, attributesDocument));
+    private String extractPushNotificationsCohort(Document attributesDocument) throws XPathExpressionException {
+        String pushNotificationsCohort = Strings.nullToEmpty(XPATHS.evaluate(XPATH_PUSH_NOTIFICATION_COHORT, attributesDocument));
         if (Strings.isNullOrEmpty(pushNotificationsCohort) || pushNotificationsCohort.equals(PUSH_NOTIFICATION_COHORT_NONE)) {
             return null;
         }
@@ -541,19 +609,19 @@ public class InternalComponentsMapper {
         return pushNotificationsCohort.toLowerCase().replace("_", "-");
     }
 
-    private Summary extractSummary(XPath xpath, Document eomFile, String transactionId, String uuid) throws TransformerException, XPathExpressionException {
-        final String bodyXML = retrieveField(xpath, SUMMARY_TAG_XPATH, eomFile);
+    private Summary extractSummary(Document eomFile, String transactionId, String uuid) throws TransformerException, XPathExpressionException {
+        final String bodyXML = retrieveField(SUMMARY_TAG_XPATH, eomFile);
         if (Strings.isNullOrEmpty(bodyXML)) {
             return null;
         }
         final String transformedBodyXML = transformField("<body>" + bodyXML + "</body>", bodyTransformer, transactionId, Maps.immutableEntry("uuid", uuid));
-        String displayPosition = Strings.emptyToNull(xpath.evaluate(SUMMARY_TAG_XPATH + "/@display-position", eomFile).trim());
+        String displayPosition = Strings.emptyToNull(XPATHS.evaluate(XPATH_SUMMARY_DISPLAY_POSITION, eomFile).trim());
 
         return Summary.builder().withBodyXML(transformedBodyXML).withDisplayPosition(displayPosition).build();
     }
 
-    private String extractPushNotificationsText(XPath xPath, Document valueDocument) throws XPathExpressionException {
-        String pushNotificationsText = Strings.nullToEmpty(xPath.evaluate(XPATH_PUSH_NOTIFICATION_TEXT, valueDocument)).trim();
+    private String extractPushNotificationsText(Document valueDocument) throws XPathExpressionException {
+        String pushNotificationsText = Strings.nullToEmpty(XPATHS.evaluate(XPATH_PUSH_NOTIFICATION_TEXT, valueDocument)).trim();
         if (Strings.isNullOrEmpty(pushNotificationsText)) {
             return null;
         }
@@ -561,17 +629,17 @@ public class InternalComponentsMapper {
         return pushNotificationsText;
     }
 
-    private List<Block> getBlocks(XPath xpath, Document value, String type, String txID) throws XPathExpressionException, TransformerException {
+    private List<Block> getBlocks(Document value, String type, String txID) throws XPathExpressionException, TransformerException {
         if (!Type.DYNAMIC_CONTENT.equals(type)) {
             return null;
         }
         List<Block> resultedBlocks = new ArrayList<>();
 
-        NodeList xmlBlocks = (NodeList) xpath.compile(BLOCKS_XPATH).evaluate(value, XPathConstants.NODESET);
+        NodeList xmlBlocks = (NodeList) XPATHS.evaluate(BLOCKS_XPATH, value, XPathConstants.NODESET);
         for (int i = 0; i < xmlBlocks.getLength(); i++) {
             Node currentBlock = xmlBlocks.item(i);
-            Node keyNode = (Node) xpath.evaluate("block-name", currentBlock, XPathConstants.NODE);
-            Node valueXMLNode = (Node) xpath.evaluate("block-html-value", currentBlock, XPathConstants.NODE);
+            Node keyNode = (Node) XPATHS.evaluate(XPATH_BLOCK_NAME, currentBlock, XPathConstants.NODE);
+            Node valueXMLNode = (Node) XPATHS.evaluate(XPATH_BLOCK_HTML_VALUE, currentBlock, XPathConstants.NODE);
 
             String key = getNodeValueAsString(keyNode);
             String valueXML = getNodeValueAsString(valueXMLNode);
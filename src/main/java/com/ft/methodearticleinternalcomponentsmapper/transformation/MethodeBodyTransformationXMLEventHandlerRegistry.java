@@ -7,7 +7,6 @@ import com.ft.bodyprocessing.xml.eventhandlers.PlainTextHtmlEntityReferenceEvent
 import com.ft.bodyprocessing.xml.eventhandlers.RetainWithSpecificAttributesXMLEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.RetainWithoutAttributesXMLEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.RetainXMLEventHandler;
-import com.ft.bodyprocessing.xml.eventhandlers.SimpleTransformBlockElementEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.SimpleTransformTagXmlEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.StripElementAndContentsXMLEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.StripXMLEventHandler;
@@ -34,9 +33,10 @@ public class MethodeBodyTransformationXMLEventHandlerRegistry extends XMLEventHa
 
         //rich content
         InlineImageXmlEventHandler inlineImageXmlEventHandler = new InlineImageXmlEventHandler();
-        registerStartAndEndElementEventHandler(new PullQuoteEventHandler(new PullQuoteXMLParser(new StAXTransformingBodyProcessor(this), inlineImageXmlEventHandler)), "web-pull-quote");
-        registerStartAndEndElementEventHandler(new PromoBoxEventHandler(new PromoBoxXMLParser(new StAXTransformingBodyProcessor(this), inlineImageXmlEventHandler)), "promo-box");
-        registerStartAndEndElementEventHandler(new DataTableXMLEventHandler(new DataTableXMLParser(new StAXTransformingBodyProcessor(new StructuredMethodeSourcedBodyXMLEventHandlerRegistryInnerTable(this))), new StripElementAndContentsXMLEventHandler()), "table");
+        NestedContentXMLEventProcessor nestedContentXMLEventProcessor = new NestedContentXMLEventProcessor(this);
+        registerStartAndEndElementEventHandler(new PullQuoteEventHandler(new PullQuoteXMLParser(nestedContentXMLEventProcessor, inlineImageXmlEventHandler)), "web-pull-quote");
+        registerStartAndEndElementEventHandler(new PromoBoxEventHandler(new PromoBoxXMLParser(nestedContentXMLEventProcessor, inlineImageXmlEventHandler)), "promo-box");
+        registerStartAndEndElementEventHandler(new DataTableXMLEventHandler(new DataTableXMLParser(new NestedContentXMLEventProcessor(new StructuredMethodeSourcedBodyXMLEventHandlerRegistryInnerTable(this))), new StripElementAndContentsXMLEventHandler()), "table");
         registerStartElementEventHandler(new BlockquoteXMLEventHandler(new BlockquoteXMLParser(new StAXTransformingBodyProcessor(this))), "blockquote");
 
         registerStartAndEndElementEventHandler(new MethodeVideoXmlEventHandler("videoid", new StripElementAndContentsXMLEventHandler()), "videoPlayer");
@@ -87,7 +87,7 @@ public class MethodeBodyTransformationXMLEventHandlerRegistry extends XMLEventHa
         );
 
         registerStartAndEndElementEventHandler(new SimpleTransformTagXmlEventHandler("h3", "class", "ft-subhead"), "subhead");
-        registerStartAndEndElementEventHandler(new SimpleTransformBlockElementEventHandler(new StAXTransformingBodyProcessor(this), "ft-timeline"), "timeline");
+        registerStartAndEndElementEventHandler(new TransformBlockElementEventHandler(nestedContentXMLEventProcessor, "ft-timeline"), "timeline");
         registerStartAndEndElementEventHandler(new ReplaceElementXMLEventHandler("div", "class"), "layout-set", "layout", "layout-slot");
 
         registerStartElementEventHandler(new RecommendedXMLEventHandler(new RecommendedXMLParser()), "recommended");
@@ -7,27 +7,18 @@ import com.ft.bodyprocessing.TransactionIdBodyProcessingContext;
 import com.ft.methodearticleinternalcomponentsmapper.clients.DocumentStoreApiClient;
 import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
 import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathFactory;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -65,8 +56,7 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
             return body;
         }
         try {
-            final DocumentBuilder documentBuilder = getDocumentBuilder();
-            final Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
+            final Document document = XmlResources.parse(body);
 
             final Map<Node, String> aTagsToCheck = new HashMap<>();
             final XPath xpath = XPathFactory.newInstance().newXPath();
@@ -155,35 +145,31 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
     }
 
     private String serializeBody(Document document) {
-        final DOMSource domSource = new DOMSource(document);
-        final StringWriter writer = new StringWriter();
-        final StreamResult result = new StreamResult(writer);
-        final TransformerFactory tf = TransformerFactory.newInstance();
         try {
-            final Transformer transformer = tf.newTransformer();
-            transformer.setOutputProperty("omit-xml-declaration", "yes");
-            transformer.setOutputProperty("standalone", "yes");
-            transformer.transform(domSource, result);
-            writer.flush();
-            return writer.toString();
+            return XmlResources.serializeStandalone(document);
         } catch (TransformationException | TransformerException e) {
             throw new BodyProcessingException(e);
         }
     }
 
     private void processATags(Map<Node, String> aTags, List<Content> content) {
-        for (Node aTag : aTags.keySet()) {
-            Optional<Content> matchingContent = getMatchingContent(content, aTags.get(aTag));
-            if (matchingContent.isPresent()) {
-                replaceLinkToContentPresentInDocumentStore(aTag, matchingContent.get());
-            } else if (isConvertibleToAssetOnFtCom(aTag)) {
-                transformLinkToAssetOnFtCom(aTag, aTags.get(aTag));
+        Map<String, Content> contentByUuid = indexByUuid(content);
+        for (Map.Entry<Node, String> aTag : aTags.entrySet()) {
+            Content matchingContent = contentByUuid.get(aTag.getValue());
+            if (matchingContent != null) {
+                replaceLinkToContentPresentInDocumentStore(aTag.getKey(), matchingContent);
+            } else if (isConvertibleToAssetOnFtCom(aTag.getKey())) {
+                transformLinkToAssetOnFtCom(aTag.getKey(), aTag.getValue());
             }
         }
     }
 
-    private Optional<Content> getMatchingContent(List<Content> content, String uuid) {
-        return content.stream().filter(c -> c.getUuid().equals(uuid)).findFirst();
+    private Map<String, Content> indexByUuid(List<Content> content) {
+        Map<String, Content> contentByUuid = new HashMap<>(content.size() * 2);
+        for (Content item : content) {
+            contentByUuid.putIfAbsent(item.getUuid(), item);
+        }
+        return contentByUuid;
     }
 
     private void replaceLinkToContentPresentInDocumentStore(Node node, Content content) {
@@ -296,11 +282,4 @@ public class MethodeLinksBodyProcessor implements BodyProcessor {
         }
         parentNode.removeChild(aTag);
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-
-        return documentBuilderFactory.newDocumentBuilder();
-    }
 }
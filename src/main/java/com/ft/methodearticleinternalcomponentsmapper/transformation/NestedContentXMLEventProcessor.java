@@ -0,0 +1,146 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.writer.BodyWriter;
+import com.ft.bodyprocessing.writer.HTML5VoidElementHandlingXMLBodyWriter;
+import com.ft.bodyprocessing.xml.eventhandlers.XMLEventHandlerRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.util.StaxResources;
+import org.apache.commons.lang.StringUtils;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.EntityReference;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.EventReaderDelegate;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Transforms the content of a nested element, such as the text of a pull quote or the body of a timeline, with the
+ * handlers of an {@link XMLEventHandlerRegistry} while it is being read from the current event stream.
+ * <p>
+ * The content is written to a scoped sub-writer and returned as a string, so the caller can place it where it
+ * belongs. Unlike serialising the raw content and handing it to a new
+ * {@link com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor}, nothing is parsed twice, and an element nested in
+ * another one of the same name (a timeline in a timeline, say) ends where its own end tag is.
+ */
+public class NestedContentXMLEventProcessor {
+
+    private final XMLEventHandlerRegistry eventHandlerRegistry;
+
+    public NestedContentXMLEventProcessor(XMLEventHandlerRegistry eventHandlerRegistry) {
+        checkNotNull(eventHandlerRegistry, "The XMLEventHandlerRegistry cannot be null.");
+        this.eventHandlerRegistry = eventHandlerRegistry;
+    }
+
+    /**
+     * Transforms the content of the element whose start tag has just been read, consuming the events up to and
+     * including its end tag.
+     *
+     * @return the transformed content, or an empty string if there is nothing but whitespace left.
+     */
+    public String process(XMLEventReader xmlEventReader, BodyProcessingContext bodyProcessingContext) throws XMLStreamException {
+        HTML5VoidElementHandlingXMLBodyWriter writer = StaxResources.newBodyWriter();
+        ElementContentXMLEventReader contentReader = new ElementContentXMLEventReader(xmlEventReader);
+
+        while (contentReader.hasNext()) {
+            handle(contentReader.nextEvent(), contentReader, writer, bodyProcessingContext);
+        }
+        // the end tag of the element itself
+        xmlEventReader.nextEvent();
+
+        String content = writer.asString();
+        return StringUtils.isBlank(content) ? "" : content;
+    }
+
+    private void handle(XMLEvent event, XMLEventReader xmlEventReader, BodyWriter writer,
+                        BodyProcessingContext bodyProcessingContext) throws XMLStreamException {
+        if (event.isStartElement()) {
+            eventHandlerRegistry.getEventHandler(event.asStartElement())
+                    .handleStartElementEvent(event.asStartElement(), xmlEventReader, writer, bodyProcessingContext);
+        } else if (event.isEndElement()) {
+            eventHandlerRegistry.getEventHandler(event.asEndElement())
+                    .handleEndElementEvent(event.asEndElement(), xmlEventReader, writer);
+        } else if (event.isCharacters()) {
+            eventHandlerRegistry.getEventHandler(event.asCharacters())
+                    .handleCharactersEvent(event.asCharacters(), xmlEventReader, writer);
+        } else if (event.isEntityReference()) {
+            eventHandlerRegistry.getEventHandler((EntityReference) event)
+                    .handleEntityReferenceEvent((EntityReference) event, xmlEventReader, writer);
+        }
+        // comments and processing instructions, such as Methode's dummy text, are dropped
+    }
+
+    /**
+     * Hands out the events of an element's content and stops before its end tag, however much of the content the
+     * handlers read ahead.
+     */
+    static class ElementContentXMLEventReader extends EventReaderDelegate {
+
+        private int depth;
+
+        ElementContentXMLEventReader(XMLEventReader xmlEventReader) {
+            super(xmlEventReader);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!super.hasNext()) {
+                return false;
+            }
+            try {
+                return depth > 0 || !super.peek().isEndElement();
+            } catch (XMLStreamException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public XMLEvent nextEvent() throws XMLStreamException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("end of element content");
+            }
+            return track(super.nextEvent());
+        }
+
+        @Override
+        public Object next() {
+            try {
+                return nextEvent();
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public XMLEvent nextTag() throws XMLStreamException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("end of element content");
+            }
+            return track(super.nextTag());
+        }
+
+        @Override
+        public XMLEvent peek() throws XMLStreamException {
+            return hasNext() ? super.peek() : null;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            // reads up to and including the end tag of the element just started
+            String text = super.getElementText();
+            depth--;
+            return text;
+        }
+
+        private XMLEvent track(XMLEvent event) {
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+            return event;
+        }
+    }
+}
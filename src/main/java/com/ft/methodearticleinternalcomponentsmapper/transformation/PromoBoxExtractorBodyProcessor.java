@@ -3,33 +3,31 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.methodearticleinternalcomponentsmapper.util.XPathExpressionRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.util.XmlResources;
 import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 
-public class PromoBoxExtractorBodyProcessor implements BodyProcessor {
+/**
+ * Moves promo boxes out of the paragraphs they are in. If the body cannot be processed it is left as it is, whether
+ * this runs as a processor of its own or as part of a {@link CompositeDOMTransformingBodyProcessor}.
+ */
+public class PromoBoxExtractorBodyProcessor implements BodyProcessor, DocumentTransformer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PromoBoxExtractorBodyProcessor.class);
 
     private static final String PROMO_BOX = "//promo-box[ancestor::p]";
+    private static final XPathExpressionRegistry XPATHS = new XPathExpressionRegistry(PROMO_BOX);
 
     @Override
     public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
@@ -38,22 +36,29 @@ public class PromoBoxExtractorBodyProcessor implements BodyProcessor {
         }
 
         try {
-            DocumentBuilder documentBuilder = getDocumentBuilder();
-            Document document = documentBuilder.parse(new InputSource(new StringReader(body)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
+            Document document = XmlResources.parse(body);
 
-            paragraphPromoBoxExtract(document, xPath);
+            transform(document);
 
-            body = serializeBody(document);
-        } catch (ParserConfigurationException | IOException | SAXException | TransformerException | XPathExpressionException e) {
-            e.printStackTrace();
+            body = XmlResources.serializeStandalone(document);
+        } catch (IOException | SAXException | TransformerException e) {
+            LOG.warn("Unable to extract promo boxes from paragraphs, the body is left as it is", e);
         }
 
         return body;
     }
 
-    private void paragraphPromoBoxExtract(Document document, XPath xPath) throws XPathExpressionException {
-        NodeList nodeList = (NodeList) xPath.compile(PROMO_BOX).evaluate(document, XPathConstants.NODESET);
+    @Override
+    public void transform(Document document) {
+        try {
+            paragraphPromoBoxExtract(document);
+        } catch (XPathExpressionException e) {
+            LOG.warn("Unable to extract promo boxes from paragraphs, the document is left as it is", e);
+        }
+    }
+
+    private void paragraphPromoBoxExtract(Document document) throws XPathExpressionException {
+        NodeList nodeList = (NodeList) XPATHS.evaluate(PROMO_BOX, document, XPathConstants.NODESET);
         for (int i = 0; i < nodeList.getLength(); i++) {
             Node promoBoxNode = nodeList.item(i);
             Node promoBoxParentNode = promoBoxNode.getParentNode();
@@ -73,25 +78,4 @@ public class PromoBoxExtractorBodyProcessor implements BodyProcessor {
             promoBoxParentNode.removeChild(promoBoxNode);
         }
     }
-
-    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        return builderFactory.newDocumentBuilder();
-    }
-
-    private String serializeBody(Document document) throws TransformerException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-
-        DOMSource domSource = new DOMSource(document);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
-
-        transformer.transform(domSource, result);
-
-        writer.flush();
-        return writer.toString();
-    }
 }
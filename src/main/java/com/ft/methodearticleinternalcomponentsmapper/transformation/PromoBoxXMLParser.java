@@ -3,11 +3,9 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.writer.HTML5VoidElementHandlingXMLBodyWriter;
-import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
 import com.ft.bodyprocessing.xml.eventhandlers.BaseXMLParser;
 import com.ft.bodyprocessing.xml.eventhandlers.XmlParser;
-import org.apache.commons.lang.StringUtils;
-import org.codehaus.stax2.XMLOutputFactory2;
+import com.ft.methodearticleinternalcomponentsmapper.util.StaxResources;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -27,14 +25,14 @@ public class PromoBoxXMLParser extends BaseXMLParser<PromoBoxData> implements Xm
 	private static final String PROMO_IMAGE = "promo-image";
 	private static final String PROMO_TITLE = "promo-title";
 
-	private StAXTransformingBodyProcessor stAXTransformingBodyProcessor;
+	private NestedContentXMLEventProcessor nestedContentXMLEventProcessor;
 	private InlineImageXmlEventHandler inlineImageXmlEventHandler;
 
-	public PromoBoxXMLParser(StAXTransformingBodyProcessor stAXTransformingBodyProcessor,
+	public PromoBoxXMLParser(NestedContentXMLEventProcessor nestedContentXMLEventProcessor,
 							 InlineImageXmlEventHandler inlineImageXmlEventHandler) {
 		super(PROMO_BOX);
-		checkNotNull(stAXTransformingBodyProcessor, "The StAXTransformingBodyProcessor cannot be null.");
-		this.stAXTransformingBodyProcessor = stAXTransformingBodyProcessor;
+		checkNotNull(nestedContentXMLEventProcessor, "The NestedContentXMLEventProcessor cannot be null.");
+		this.nestedContentXMLEventProcessor = nestedContentXMLEventProcessor;
 		this.inlineImageXmlEventHandler = inlineImageXmlEventHandler;
 	}
 
@@ -49,11 +47,12 @@ public class PromoBoxXMLParser extends BaseXMLParser<PromoBoxData> implements Xm
 		return new PromoBoxData();
 	}
 
-	private String transformRawContentToStructuredFormat(String unprocessedContent, BodyProcessingContext bodyProcessingContext) {
-		if (!StringUtils.isBlank(unprocessedContent)) {
-			return stAXTransformingBodyProcessor.process(unprocessedContent, bodyProcessingContext);
+	private String transformContentToStructuredFormat(XMLEventReader xmlEventReader, BodyProcessingContext bodyProcessingContext) {
+		try {
+			return nestedContentXMLEventProcessor.process(xmlEventReader, bodyProcessingContext);
+		} catch (XMLStreamException e) {
+			throw new BodyProcessingException(e);
 		}
-		return "";
 	}
 
 	@Override
@@ -63,19 +62,17 @@ public class PromoBoxXMLParser extends BaseXMLParser<PromoBoxData> implements Xm
 		final QName elementName = nextStartElement.getName();
 		
 		if (isElementNamed(elementName, PROMO_HEADLINE)) {
-			promoBoxData.setHeadline(transformRawContentToStructuredFormat(
-			        parseRawContent(PROMO_HEADLINE, xmlEventReader), bodyProcessingContext));
+			promoBoxData.setHeadline(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 		if (isElementNamed(elementName, PROMO_INTRO)) {
-			promoBoxData.setIntro(transformRawContentToStructuredFormat(
-					parseRawContent(PROMO_INTRO, xmlEventReader), bodyProcessingContext));
+			promoBoxData.setIntro(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 		if (isElementNamed(elementName, PROMO_LINK)) {
 			promoBoxData.setLink(parseRawContent(PROMO_LINK, xmlEventReader));
 		}
 		if (isElementNamed(elementName, PROMO_IMAGE) || isElementNamed(elementName, WEB_MASTER)) {
 			try {
-				HTML5VoidElementHandlingXMLBodyWriter writer = new HTML5VoidElementHandlingXMLBodyWriter((XMLOutputFactory2) XMLOutputFactory2.newInstance());
+				HTML5VoidElementHandlingXMLBodyWriter writer = StaxResources.newBodyWriter();
 				inlineImageXmlEventHandler.handleStartElementEvent(nextStartElement, xmlEventReader, writer, bodyProcessingContext);
 				promoBoxData.setImageHtml(writer.asString());
 			} catch (XMLStreamException | IOException e) {
@@ -83,8 +80,7 @@ public class PromoBoxXMLParser extends BaseXMLParser<PromoBoxData> implements Xm
 			}
 		}
 		if (isElementNamed(elementName, PROMO_TITLE)) {
-			promoBoxData.setTitle(transformRawContentToStructuredFormat(
-			        parseRawContent(PROMO_TITLE, xmlEventReader), bodyProcessingContext));
+			promoBoxData.setTitle(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 	}
 
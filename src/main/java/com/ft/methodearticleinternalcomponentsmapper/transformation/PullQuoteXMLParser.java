@@ -3,11 +3,9 @@ package com.ft.methodearticleinternalcomponentsmapper.transformation;
 import com.ft.bodyprocessing.BodyProcessingContext;
 import com.ft.bodyprocessing.BodyProcessingException;
 import com.ft.bodyprocessing.writer.HTML5VoidElementHandlingXMLBodyWriter;
-import com.ft.bodyprocessing.xml.StAXTransformingBodyProcessor;
 import com.ft.bodyprocessing.xml.eventhandlers.BaseXMLParser;
 import com.ft.bodyprocessing.xml.eventhandlers.XmlParser;
-import org.apache.commons.lang.StringUtils;
-import org.codehaus.stax2.XMLOutputFactory2;
+import com.ft.methodearticleinternalcomponentsmapper.util.StaxResources;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -24,14 +22,14 @@ public class PullQuoteXMLParser extends BaseXMLParser<PullQuoteData> implements
 	private static final String PULL_QUOTE = "web-pull-quote";
     private static final String WEB_MASTER = "web-master";
 
-	private StAXTransformingBodyProcessor stAXTransformingBodyProcessor;
+	private NestedContentXMLEventProcessor nestedContentXMLEventProcessor;
     private InlineImageXmlEventHandler inlineImageXmlEventHandler;
 
-	public PullQuoteXMLParser(StAXTransformingBodyProcessor stAXTransformingBodyProcessor, InlineImageXmlEventHandler inlineImageXmlEventHandler) {
+	public PullQuoteXMLParser(NestedContentXMLEventProcessor nestedContentXMLEventProcessor, InlineImageXmlEventHandler inlineImageXmlEventHandler) {
 		super(PULL_QUOTE);
         this.inlineImageXmlEventHandler = inlineImageXmlEventHandler;
-        checkNotNull(stAXTransformingBodyProcessor, "The StAXTransformingBodyProcessor cannot be null.");
-		this.stAXTransformingBodyProcessor = stAXTransformingBodyProcessor;
+        checkNotNull(nestedContentXMLEventProcessor, "The NestedContentXMLEventProcessor cannot be null.");
+		this.nestedContentXMLEventProcessor = nestedContentXMLEventProcessor;
 	}
 
 	@Override
@@ -45,11 +43,12 @@ public class PullQuoteXMLParser extends BaseXMLParser<PullQuoteData> implements
 		return new PullQuoteData();
 	}
 
-	private String transformRawContentToStructuredFormat(String unprocessedContent, BodyProcessingContext bodyProcessingContext) {
-		if (!StringUtils.isBlank(unprocessedContent)) {
-			return stAXTransformingBodyProcessor.process(unprocessedContent, bodyProcessingContext);
+	private String transformContentToStructuredFormat(XMLEventReader xmlEventReader, BodyProcessingContext bodyProcessingContext) {
+		try {
+			return nestedContentXMLEventProcessor.process(xmlEventReader, bodyProcessingContext);
+		} catch (XMLStreamException e) {
+			throw new BodyProcessingException(e);
 		}
-		return "";
 	}
 
 	@Override
@@ -60,15 +59,15 @@ public class PullQuoteXMLParser extends BaseXMLParser<PullQuoteData> implements
 
 		// look for either web-pull-quote-text or web-pull-quote-source
 		if (isElementNamed(elementName, QUOTE_TEXT)) {
-			pullQuoteData.setQuoteText(transformRawContentToStructuredFormat(parseRawContent(QUOTE_TEXT, xmlEventReader), bodyProcessingContext));
+			pullQuoteData.setQuoteText(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 		if (isElementNamed(elementName, QUOTE_SOURCE)) {
-			pullQuoteData.setQuoteSource(transformRawContentToStructuredFormat(parseRawContent(QUOTE_SOURCE, xmlEventReader), bodyProcessingContext));
+			pullQuoteData.setQuoteSource(transformContentToStructuredFormat(xmlEventReader, bodyProcessingContext));
 		}
 
         if(isElementNamed(elementName, WEB_MASTER)) {
             try {
-                HTML5VoidElementHandlingXMLBodyWriter writer = new HTML5VoidElementHandlingXMLBodyWriter((XMLOutputFactory2) XMLOutputFactory2.newInstance());
+                HTML5VoidElementHandlingXMLBodyWriter writer = StaxResources.newBodyWriter();
                 inlineImageXmlEventHandler.handleStartElementEvent(nextStartElement, xmlEventReader, writer, bodyProcessingContext);
                 pullQuoteData.setImageHtml(writer.asString());
             } catch (XMLStreamException | IOException e) {
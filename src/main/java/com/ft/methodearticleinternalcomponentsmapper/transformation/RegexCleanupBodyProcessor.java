@@ -0,0 +1,123 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Applies a list of regex replacements to the body, in order, with the same result as a chain of
+ * {@link com.ft.bodyprocessing.regex.RegexReplacerBodyProcessor}s and
+ * {@link com.ft.bodyprocessing.regex.RegexRemoverBodyProcessor}s for the same expressions.
+ * <p>
+ * Rules are still applied one after the other, because a replacement can create a match for a later rule
+ * (removing <code>&lt;em&gt;&lt;/em&gt;</code> from <code>&lt;span&gt;&lt;em&gt;&lt;/em&gt;&lt;/span&gt;</code>
+ * leaves an empty span to remove), but:
+ * <ul>
+ * <li>a rule is skipped without scanning the body with its regex when none of the literals its matches must
+ * contain occur in the body;</li>
+ * <li>rules write into one of two buffers reused across the rules and read from the other, so only the final body
+ * is copied into a new String, and only if a rule matched.</li>
+ * </ul>
+ * Replacements are literal text: <code>$</code> and <code>\</code> have no special meaning.
+ */
+public class RegexCleanupBodyProcessor implements BodyProcessor {
+
+    private final List<Rule> rules;
+
+    public RegexCleanupBodyProcessor(Rule... rules) {
+        this.rules = asList(rules);
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        if (body == null || body.trim().isEmpty()) {
+            return body;
+        }
+
+        CharSequence current = body;
+        StringBuilder spare = null;
+        for (Rule rule : rules) {
+            if (!rule.mayMatch(current)) {
+                continue;
+            }
+
+            Matcher matcher = rule.pattern.matcher(current);
+            if (!matcher.find()) {
+                continue;
+            }
+
+            if (spare == null) {
+                spare = new StringBuilder(current.length());
+            }
+            spare.setLength(0);
+
+            int last = 0;
+            do {
+                spare.append(current, last, matcher.start()).append(rule.replacement);
+                last = matcher.end();
+            } while (matcher.find());
+            spare.append(current, last, current.length());
+
+            StringBuilder result = spare;
+            spare = current instanceof StringBuilder ? (StringBuilder) current : null;
+            current = result;
+        }
+
+        return current.toString();
+    }
+
+    /**
+     * A regex and its replacement, plus the literals of which at least one must occur in any text the regex
+     * matches. With no literals, the regex is always evaluated.
+     */
+    public static class Rule {
+
+        private final Pattern pattern;
+        private final String replacement;
+        private final String[] literals;
+
+        private Rule(String regex, String replacement, String... literals) {
+            this.pattern = Pattern.compile(regex);
+            this.replacement = replacement;
+            this.literals = literals;
+        }
+
+        public static Rule remove(String regex, String... literals) {
+            return new Rule(regex, "", literals);
+        }
+
+        public static Rule replace(String regex, String replacement, String... literals) {
+            return new Rule(regex, replacement, literals);
+        }
+
+        public String getRegex() {
+            return pattern.pattern();
+        }
+
+        public String getReplacement() {
+            return replacement;
+        }
+
+        private boolean mayMatch(CharSequence body) {
+            if (literals.length == 0) {
+                return true;
+            }
+            for (String literal : literals) {
+                if (indexOf(body, literal) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int indexOf(CharSequence body, String literal) {
+            return body instanceof String ? ((String) body).indexOf(literal) : ((StringBuilder) body).indexOf(literal);
+        }
+    }
+}
@@ -13,8 +13,9 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -68,6 +69,7 @@ public class TearSheetLinksTransformer implements XPathHandler {
     }
 
     private void transformTearSheetLink(List<Concordance> concordances, NodeList nodes) {
+        Map<String, Concordance> concordancesByTMEId = indexByTMEId(concordances);
         int len = nodes.getLength();
         for (int i = len - 1; i >= 0; i--) {
             Element el = (Element) nodes.item(i);
@@ -76,7 +78,7 @@ public class TearSheetLinksTransformer implements XPathHandler {
             String id = StringUtils.isNotBlank(el.getAttribute("CompositeId")) ? el.getAttribute("CompositeId")
                     : el.getAttribute("compositeid");
             if (StringUtils.isNotBlank(id)) {
-                String conceptApiUrl = getConcordanceByTMEId(concordances, id);
+                String conceptApiUrl = getConcordanceByTMEId(concordancesByTMEId, id);
                 if (StringUtils.isNotBlank(conceptApiUrl)) {
                     Element newElement = el.getOwnerDocument().createElement(CONCEPT_TAG);
                     newElement.setAttribute("id", getConceptIdFromUrl(conceptApiUrl));
@@ -90,13 +92,20 @@ public class TearSheetLinksTransformer implements XPathHandler {
         }
     }
 
-    private String getConcordanceByTMEId(List<Concordance> concordances, String TMEId) {
-        Optional<Concordance> concordance = concordances.stream()
-                .filter(item -> item.getIdentifier().getAuthority().equals(TME_AUTHORITY)
-                        && TMEId.equals(item.getIdentifier().getIdentifierValue()))
-                .findFirst();
-        if (concordance.isPresent()) {
-            return concordance.get().getConcept().getApiUrl();
+    private Map<String, Concordance> indexByTMEId(List<Concordance> concordances) {
+        Map<String, Concordance> concordancesByTMEId = new HashMap<>(concordances.size() * 2);
+        for (Concordance concordance : concordances) {
+            if (concordance.getIdentifier().getAuthority().equals(TME_AUTHORITY)) {
+                concordancesByTMEId.putIfAbsent(concordance.getIdentifier().getIdentifierValue(), concordance);
+            }
+        }
+        return concordancesByTMEId;
+    }
+
+    private String getConcordanceByTMEId(Map<String, Concordance> concordancesByTMEId, String TMEId) {
+        Concordance concordance = concordancesByTMEId.get(TMEId);
+        if (concordance != null) {
+            return concordance.getConcept().getApiUrl();
         }
         return null;
     }
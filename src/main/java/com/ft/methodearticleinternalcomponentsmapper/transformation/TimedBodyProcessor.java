@@ -0,0 +1,45 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+
+/**
+ * Times a stage of the body processor chain and records the length in chars of the body it was given and of the body
+ * it returned, under metrics named after the stage. The length is read, not counted, so recording it costs nothing
+ * however large the body is.
+ */
+public class TimedBodyProcessor implements BodyProcessor {
+
+    private final BodyProcessor delegate;
+    private final Timer timer;
+    private final Histogram inputSize;
+    private final Histogram outputSize;
+
+    public TimedBodyProcessor(BodyProcessor delegate, String stage, MetricRegistry metrics) {
+        this.delegate = delegate;
+        this.timer = metrics.timer(MetricRegistry.name(TimedBodyProcessor.class, stage));
+        this.inputSize = metrics.histogram(MetricRegistry.name(TimedBodyProcessor.class, stage, "input-chars"));
+        this.outputSize = metrics.histogram(MetricRegistry.name(TimedBodyProcessor.class, stage, "output-chars"));
+    }
+
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+        if (body != null) {
+            inputSize.update(body.length());
+        }
+
+        String processed;
+        try (Timer.Context ignored = timer.time()) {
+            processed = delegate.process(body, bodyProcessingContext);
+        }
+
+        if (processed != null) {
+            outputSize.update(processed.length());
+        }
+        return processed;
+    }
+}
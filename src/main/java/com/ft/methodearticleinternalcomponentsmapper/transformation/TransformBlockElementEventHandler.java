@@ -0,0 +1,56 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.writer.BodyWriter;
+import com.ft.bodyprocessing.xml.eventhandlers.BaseXMLEventHandler;
+import com.ft.bodyprocessing.xml.eventhandlers.TransformingEventHandler;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import java.util.Collections;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The element for which the event was triggered is replaced by a new block element, closing any open paragraph
+ * around it, and its content is transformed in the current event stream by a {@link NestedContentXMLEventProcessor}.
+ */
+public class TransformBlockElementEventHandler extends BaseXMLEventHandler implements TransformingEventHandler {
+
+    private static final String PARAGRAPH_TAG = "p";
+
+    private final NestedContentXMLEventProcessor nestedContentXMLEventProcessor;
+    private final String newElement;
+
+    public TransformBlockElementEventHandler(NestedContentXMLEventProcessor nestedContentXMLEventProcessor, String newElement) {
+        checkNotNull(nestedContentXMLEventProcessor, "The NestedContentXMLEventProcessor cannot be null.");
+        this.nestedContentXMLEventProcessor = nestedContentXMLEventProcessor;
+        this.newElement = newElement;
+    }
+
+    @Override
+    public void handleStartElementEvent(StartElement startElement, XMLEventReader xmlEventReader, BodyWriter eventWriter,
+                                        BodyProcessingContext bodyProcessingContext) throws XMLStreamException {
+        String content = nestedContentXMLEventProcessor.process(xmlEventReader, bodyProcessingContext);
+
+        if (eventWriter.isPTagCurrentlyOpen()) {
+            eventWriter.writeEndTag(PARAGRAPH_TAG);
+            writeBlockElement(eventWriter, content);
+            eventWriter.writeStartTag(PARAGRAPH_TAG, Collections.<String, String>emptyMap());
+        } else {
+            writeBlockElement(eventWriter, content);
+        }
+    }
+
+    private void writeBlockElement(BodyWriter eventWriter, String content) {
+        eventWriter.writeStartTag(newElement, Collections.<String, String>emptyMap());
+        eventWriter.writeRaw(content);
+        eventWriter.writeEndTag(newElement);
+    }
+
+    @Override
+    public String getNewElement() {
+        return newElement;
+    }
+}
@@ -5,7 +5,7 @@ import com.ft.bodyprocessing.writer.BodyWriter;
 import com.ft.bodyprocessing.writer.HTML5VoidElementHandlingXMLBodyWriter;
 import com.ft.bodyprocessing.xml.eventhandlers.BaseXMLEventHandler;
 import com.ft.bodyprocessing.xml.eventhandlers.XMLEventHandler;
-import org.codehaus.stax2.XMLOutputFactory2;
+import com.ft.methodearticleinternalcomponentsmapper.util.StaxResources;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
@@ -44,7 +44,7 @@ public class WrappedHandlerXmlEventHandler extends BaseXMLEventHandler {
     }
 
     private void applyWrappedEventHandler(StartElement event, XMLEventReader xmlEventReader, BodyWriter eventWriter, BodyProcessingContext bodyProcessingContext) throws XMLStreamException, IOException {
-        HTML5VoidElementHandlingXMLBodyWriter writer = new HTML5VoidElementHandlingXMLBodyWriter((XMLOutputFactory2) XMLOutputFactory2.newInstance());
+        HTML5VoidElementHandlingXMLBodyWriter writer = StaxResources.newBodyWriter();
         eventHandlerToWrap.handleStartElementEvent(event, xmlEventReader, writer, bodyProcessingContext);
         String imageOutput = writer.asString();
         eventWriter.writeRaw(imageOutput);
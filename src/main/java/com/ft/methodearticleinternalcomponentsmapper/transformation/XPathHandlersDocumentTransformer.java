@@ -0,0 +1,38 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.xml.dom.XPathHandler;
+import com.ft.methodearticleinternalcomponentsmapper.util.XPathExpressionRegistry;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.Map;
+
+/**
+ * Passes the nodes matching each XPath expression to its {@link XPathHandler}, in the iteration order of the map,
+ * as {@link com.ft.bodyprocessing.xml.dom.DOMTransformingBodyProcessor} does.
+ */
+public class XPathHandlersDocumentTransformer implements DocumentTransformer {
+
+    private final Map<String, XPathHandler> xpathHandlers;
+    private final XPathExpressionRegistry xpaths;
+
+    public XPathHandlersDocumentTransformer(Map<String, XPathHandler> xpathHandlers) {
+        this.xpathHandlers = xpathHandlers;
+        this.xpaths = new XPathExpressionRegistry(xpathHandlers.keySet().toArray(new String[0]));
+    }
+
+    @Override
+    public void transform(Document document) {
+        try {
+            for (Map.Entry<String, XPathHandler> xpathHandler : xpathHandlers.entrySet()) {
+                NodeList nodes = (NodeList) xpaths.evaluate(xpathHandler.getKey(), document, XPathConstants.NODESET);
+                xpathHandler.getValue().handle(document, nodes);
+            }
+        } catch (XPathExpressionException e) {
+            throw new BodyProcessingException(e);
+        }
+    }
+}
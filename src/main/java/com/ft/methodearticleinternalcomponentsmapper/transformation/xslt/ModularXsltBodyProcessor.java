@@ -6,6 +6,7 @@ import com.ft.bodyprocessing.BodyProcessor;
 import com.google.common.base.Charsets;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -15,6 +16,7 @@ import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -34,27 +36,45 @@ import java.util.Map;
  * <p>The identity transform is added first.</p>
  * <p>
  * <p>Imports are resolved through the {@link URIResolver} interface.</p>
+ * <p>
+ * <p>The composite stylesheet is compiled once, when the processor is created, and each body is transformed with a
+ * new {@link Transformer} created from the compiled {@link Templates}, which are thread-safe and never change.</p>
  *
  * @author Simon Gibbs
  */
 public class ModularXsltBodyProcessor implements BodyProcessor {
 
-    private final Map<String, String> files;
+    private final Templates templates;
 
     public ModularXsltBodyProcessor(XsltFile... xslts) {
-        files = new LinkedHashMap<>();
+        templates = compile(xslts);
+    }
 
-        // It is important that this goes first (lowest priority) as it provides the default "echo the input to output" behaviour
-        files.put(XsltFile.IDENTITY_TRANSFORM.getName(), XsltFile.IDENTITY_TRANSFORM.getContent());
+    @Override
+    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
 
-        for (XsltFile file : xslts) {
-            files.put(file.getName(), file.getContent());
+        try {
+
+            Transformer transformer = templates.newTransformer();
+
+            ByteArrayOutputStream resultBuffer = new ByteArrayOutputStream();
+            StreamResult result = new StreamResult(resultBuffer);
+
+            transformer.transform(asSource(body), result);
+
+            return new String(resultBuffer.toByteArray(), Charsets.UTF_8);
+
+
+        } catch (TransformerConfigurationException e) {
+            throw new BodyProcessingException("Failed to set up XSLT");
+        } catch (TransformerException e) {
+            throw new BodyProcessingException("Failed to execute composite XSLT");
         }
 
     }
 
-    @Override
-    public String process(String body, BodyProcessingContext bodyProcessingContext) throws BodyProcessingException {
+    private static Templates compile(XsltFile... xslts) {
+        Map<String, String> files = filesFor(xslts);
 
         StringBuilder compositeXslt = new StringBuilder("<xsl:transform xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\">");
 
@@ -67,32 +87,28 @@ public class ModularXsltBodyProcessor implements BodyProcessor {
         compositeXslt.append("</xsl:transform>");
 
         try {
-
-
             TransformerFactory factory = TransformerFactory.newInstance();
             factory.setURIResolver(new ModuleUriResolver(files));
 
-            Source xsltSource = asSource(compositeXslt.toString());
-
-            Transformer transformer = factory.newTransformer(xsltSource);
-
-            ByteArrayOutputStream resultBuffer = new ByteArrayOutputStream();
-            StreamResult result = new StreamResult(resultBuffer);
-
-            transformer.transform(asSource(body), result);
+            return factory.newTemplates(asSource(compositeXslt.toString()));
+        } catch (TransformerConfigurationException e) {
+            throw new BodyProcessingException("Failed to set up XSLT");
+        }
+    }
 
-            return new String(resultBuffer.toByteArray(), Charsets.UTF_8);
+    private static Map<String, String> filesFor(XsltFile... xslts) {
+        Map<String, String> files = new LinkedHashMap<>();
 
+        // It is important that this goes first (lowest priority) as it provides the default "echo the input to output" behaviour
+        files.put(XsltFile.IDENTITY_TRANSFORM.getName(), XsltFile.IDENTITY_TRANSFORM.getContent());
 
-        } catch (TransformerConfigurationException e) {
-            throw new BodyProcessingException("Failed to set up XSLT");
-        } catch (TransformerException e) {
-            throw new BodyProcessingException("Failed to execute composite XSLT");
+        for (XsltFile file : xslts) {
+            files.put(file.getName(), file.getContent());
         }
 
+        return Collections.unmodifiableMap(files);
     }
 
-
     /**
      * Resolves keys from the map of "XSLT files" to the text of those files.
      * <p>
@@ -103,7 +119,7 @@ public class ModularXsltBodyProcessor implements BodyProcessor {
      * and <code>xsl:include</code>. We use, and support, <code>xsl:import</code> only, but you could
      * get XML from anywhere in theory.
      */
-    private class ModuleUriResolver implements URIResolver {
+    private static class ModuleUriResolver implements URIResolver {
 
         private final Map<String, String> files;
 
@@ -118,7 +134,7 @@ public class ModularXsltBodyProcessor implements BodyProcessor {
         }
     }
 
-    private StreamSource asSource(String text) {
+    private static StreamSource asSource(String text) {
         return new StreamSource(new ByteArrayInputStream(text.getBytes(Charsets.UTF_8)));
     }
 }
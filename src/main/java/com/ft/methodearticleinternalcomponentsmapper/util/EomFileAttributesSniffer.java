@@ -0,0 +1,102 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFileAttributes;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the SourceCode of an EomFile's attributes, and optionally its isContentPackage and OverrideOriginal flags,
+ * by streaming the attributes XML with StAX and stopping as soon as the requested values are found, instead of
+ * building a DOM of the whole document and evaluating XPaths on it.
+ * <p>
+ * Values are the same as those of the XPaths
+ * <code>/ObjectMetadata//EditorialNotes/Sources/Source/SourceCode</code>,
+ * <code>/ObjectMetadata/OutputChannels/DIFTcom/isContentPackage</code> and
+ * <code>/ObjectMetadata/EditorialNotes/OverrideOriginal</code>: the text of the first matching element, or an
+ * empty string if there is none. As when the attributes are parsed into a DOM, the DTD is not loaded.
+ */
+public final class EomFileAttributesSniffer {
+
+    private static final String ROOT = "ObjectMetadata";
+    private static final List<String> SOURCE_CODE_PATH_SUFFIX = Arrays.asList("EditorialNotes", "Sources", "Source", "SourceCode");
+    private static final List<String> CONTENT_PACKAGE_PATH = Arrays.asList(ROOT, "OutputChannels", "DIFTcom", "isContentPackage");
+    private static final List<String> OVERRIDE_ORIGINAL_PATH = Arrays.asList(ROOT, "EditorialNotes", "OverrideOriginal");
+
+    private EomFileAttributesSniffer() {
+    }
+
+    /**
+     * @param withFlags whether to read isContentPackage and OverrideOriginal as well as SourceCode
+     */
+    public static EomFileAttributes sniff(String attributes, boolean withFlags) throws XMLStreamException {
+        String sourceCode = null;
+        String isContentPackage = null;
+        String overrideOriginal = null;
+
+        XMLStreamReader reader = StaxResources.xmlInputFactory().createXMLStreamReader(new StringReader(attributes));
+        try {
+            List<String> path = new ArrayList<>();
+            while (reader.hasNext() && !(sourceCode != null && (!withFlags || (isContentPackage != null && overrideOriginal != null)))) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    path.add(reader.getName().toString());
+                    if (sourceCode == null && isSourceCodePath(path)) {
+                        sourceCode = readText(reader, path);
+                    } else if (withFlags && isContentPackage == null && CONTENT_PACKAGE_PATH.equals(path)) {
+                        isContentPackage = readText(reader, path);
+                    } else if (withFlags && overrideOriginal == null && OVERRIDE_ORIGINAL_PATH.equals(path)) {
+                        overrideOriginal = readText(reader, path);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return new EomFileAttributes(
+                emptyIfNull(sourceCode),
+                withFlags ? emptyIfNull(isContentPackage) : null,
+                withFlags ? emptyIfNull(overrideOriginal) : null);
+    }
+
+    private static boolean isSourceCodePath(List<String> path) {
+        int size = path.size();
+        int suffixSize = SOURCE_CODE_PATH_SUFFIX.size();
+        return size > suffixSize
+                && ROOT.equals(path.get(0))
+                && SOURCE_CODE_PATH_SUFFIX.equals(path.subList(size - suffixSize, size));
+    }
+
+    /**
+     * Reads the text of the current element and of all its descendants, leaving the reader on its end element.
+     */
+    private static String readText(XMLStreamReader reader, List<String> path) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+        path.remove(path.size() - 1);
+        return text.toString();
+    }
+
+    private static String emptyIfNull(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hashes the content of an {@link EomFile}: everything but its UUID, so that two publish events for the same UUID
+ * have the same hash exactly when they carry the same content.
+ */
+public final class EomFileHashing {
+
+    private static final HashFunction CONTENT_HASH = Hashing.murmur3_128();
+
+    private EomFileHashing() {
+    }
+
+    public static HashCode contentHash(EomFile eomFile) {
+        Hasher hasher = CONTENT_HASH.newHasher();
+        putField(hasher, eomFile.getType());
+        byte[] value = eomFile.getValue();
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length).putBytes(value);
+        }
+        putField(hasher, eomFile.getAttributes());
+        putField(hasher, eomFile.getWorkflowStatus());
+        putField(hasher, eomFile.getSystemAttributes());
+        putField(hasher, eomFile.getUsageTickets());
+        putField(hasher, eomFile.getWebUrl() == null ? null : eomFile.getWebUrl().toString());
+        return hasher.hash();
+    }
+
+    private static void putField(Hasher hasher, String field) {
+        if (field == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(field.length()).putString(field, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import com.ft.bodyprocessing.writer.HTML5VoidElementHandlingXMLBodyWriter;
+import org.codehaus.stax2.XMLInputFactory2;
+import org.codehaus.stax2.XMLOutputFactory2;
+
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * Holds the StAX factories used to read attributes and to write transformed body fragments, so that they are looked
+ * up and configured once instead of on every use.
+ * <p>
+ * Woodstox factories are thread-safe once configured. The input factory does not load DTDs or external entities, and
+ * it interns element and namespace names, which repeat throughout our documents. It does not coalesce text, because
+ * everything reading from it already copes with text split over several events. The output factory keeps its
+ * defaults, so the body writers produce exactly what they did before.
+ */
+public final class StaxResources {
+
+    private static final XMLInputFactory2 XML_INPUT_FACTORY = newXmlInputFactory();
+    private static final XMLOutputFactory2 XML_OUTPUT_FACTORY = (XMLOutputFactory2) XMLOutputFactory2.newInstance();
+
+    private StaxResources() {
+    }
+
+    public static XMLInputFactory2 xmlInputFactory() {
+        return XML_INPUT_FACTORY;
+    }
+
+    public static XMLOutputFactory2 xmlOutputFactory() {
+        return XML_OUTPUT_FACTORY;
+    }
+
+    /**
+     * A writer for a fragment of body, such as an image or the content of a nested element, to be placed by the
+     * caller once written.
+     */
+    public static HTML5VoidElementHandlingXMLBodyWriter newBodyWriter() {
+        return new HTML5VoidElementHandlingXMLBodyWriter(XML_OUTPUT_FACTORY);
+    }
+
+    private static XMLInputFactory2 newXmlInputFactory() {
+        XMLInputFactory2 factory = (XMLInputFactory2) XMLInputFactory2.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory2.P_INTERN_NAMES, true);
+        factory.setProperty(XMLInputFactory2.P_INTERN_NS_URIS, true);
+        return factory;
+    }
+}
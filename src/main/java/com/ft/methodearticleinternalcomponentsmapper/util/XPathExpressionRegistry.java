@@ -0,0 +1,67 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds a fixed set of XPath expressions, compiled once per thread.
+ * <p>
+ * {@link XPathExpression} instances are not thread-safe, so each thread gets its own compiled copy of every
+ * registered expression, created the first time that thread evaluates it. All expressions are compiled once
+ * at construction as well, so a malformed path fails at start-up rather than on the first message.
+ */
+public class XPathExpressionRegistry {
+
+    private final Set<String> expressions;
+    private final ThreadLocal<Map<String, XPathExpression>> compiled;
+
+    public XPathExpressionRegistry(String... expressions) {
+        this.expressions = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(expressions)));
+
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        for (String expression : this.expressions) {
+            try {
+                xpath.compile(expression);
+            } catch (XPathExpressionException e) {
+                throw new IllegalArgumentException("Invalid XPath expression: " + expression, e);
+            }
+        }
+
+        this.compiled = ThreadLocal.withInitial(HashMap::new);
+    }
+
+    public Set<String> getExpressions() {
+        return expressions;
+    }
+
+    public XPathExpression get(String expression) throws XPathExpressionException {
+        if (!expressions.contains(expression)) {
+            throw new IllegalArgumentException("XPath expression is not registered: " + expression);
+        }
+
+        Map<String, XPathExpression> threadExpressions = compiled.get();
+        XPathExpression xpathExpression = threadExpressions.get(expression);
+        if (xpathExpression == null) {
+            xpathExpression = XPathFactory.newInstance().newXPath().compile(expression);
+            threadExpressions.put(expression, xpathExpression);
+        }
+        return xpathExpression;
+    }
+
+    public String evaluate(String expression, Object item) throws XPathExpressionException {
+        return get(expression).evaluate(item);
+    }
+
+    public Object evaluate(String expression, Object item, QName returnType) throws XPathExpressionException {
+        return get(expression).evaluate(item, returnType);
+    }
+}
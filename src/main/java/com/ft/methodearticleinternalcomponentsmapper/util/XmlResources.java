@@ -0,0 +1,114 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Parses XML into DOM documents and serializes DOM nodes back to strings, reusing the parsers and serializers.
+ * <p>
+ * The {@link DocumentBuilderFactory} and {@link TransformerFactory} are looked up once and configured as the
+ * factories they replace were: external DTDs are not loaded and everything else keeps its default. Neither
+ * {@link DocumentBuilder} nor {@link Transformer} is thread-safe, so each thread gets its own instance of each, which
+ * is reset after every use so that no state or output property leaks from one document to the next.
+ */
+public final class XmlResources {
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = newDocumentBuilderFactory();
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = ThreadLocal.withInitial(XmlResources::newDocumentBuilder);
+    private static final ThreadLocal<Transformer> SERIALIZERS = ThreadLocal.withInitial(XmlResources::newSerializer);
+
+    private XmlResources() {
+    }
+
+    public static Document parse(String xml) throws SAXException, IOException {
+        return parse(new InputSource(new StringReader(xml)));
+    }
+
+    public static Document parse(InputStream xml) throws SAXException, IOException {
+        return parse(new InputSource(xml));
+    }
+
+    public static Document parse(InputSource xml) throws SAXException, IOException {
+        DocumentBuilder documentBuilder = DOCUMENT_BUILDERS.get();
+        try {
+            return documentBuilder.parse(xml);
+        } finally {
+            documentBuilder.reset();
+        }
+    }
+
+    /**
+     * Serializes the node without an XML declaration.
+     */
+    public static String serialize(Node node) throws TransformerException {
+        return serialize(node, false);
+    }
+
+    /**
+     * Serializes the node without an XML declaration, as a standalone document.
+     */
+    public static String serializeStandalone(Node node) throws TransformerException {
+        return serialize(node, true);
+    }
+
+    private static String serialize(Node node, boolean standalone) throws TransformerException {
+        Transformer serializer = SERIALIZERS.get();
+        try {
+            serializer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            if (standalone) {
+                serializer.setOutputProperty(OutputKeys.STANDALONE, "yes");
+            }
+
+            StringWriter writer = new StringWriter();
+            serializer.transform(new DOMSource(node), new StreamResult(writer));
+            return writer.toString();
+        } finally {
+            serializer.reset();
+        }
+    }
+
+    private static DocumentBuilderFactory newDocumentBuilderFactory() {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        try {
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to configure the XML parser", e);
+        }
+        return documentBuilderFactory;
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create an XML parser", e);
+        }
+    }
+
+    private static Transformer newSerializer() {
+        try {
+            return TRANSFORMER_FACTORY.newTransformer();
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Unable to create an XML serializer", e);
+        }
+    }
+}
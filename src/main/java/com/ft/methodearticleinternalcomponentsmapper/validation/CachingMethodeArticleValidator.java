@@ -0,0 +1,91 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.util.EomFileHashing;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.sun.jersey.api.client.Client;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MethodeArticleValidator} that remembers the publishing status of an EomFile for a short while, so that
+ * the duplicate publish events Methode emits within seconds of each other are not all posted to the mapper again.
+ * <p>
+ * A decision is keyed by the UUID, a hash of everything else posted (value, attributes, workflow status and so on)
+ * and the preview flag, so any change to the content is validated again. Failed calls are not cached.
+ */
+public class CachingMethodeArticleValidator extends MethodeArticleValidator {
+
+    private final Cache<DecisionKey, PublishingStatus> decisions;
+    private final Meter hits;
+    private final Meter misses;
+
+    public CachingMethodeArticleValidator(Client mamClient, URI mamUri, String mamHost,
+                                          CacheConfiguration cacheConfiguration, MetricRegistry metrics) {
+        this(mamClient, mamUri, mamHost, cacheConfiguration, metrics, Ticker.systemTicker());
+    }
+
+    CachingMethodeArticleValidator(Client mamClient, URI mamUri, String mamHost,
+                                   CacheConfiguration cacheConfiguration, MetricRegistry metrics, Ticker ticker) {
+        super(mamClient, mamUri, mamHost);
+
+        this.hits = metrics.meter(MetricRegistry.name(CachingMethodeArticleValidator.class, mamHost, "cache-hits"));
+        this.misses = metrics.meter(MetricRegistry.name(CachingMethodeArticleValidator.class, mamHost, "cache-misses"));
+        this.decisions = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfiguration.getMaximumSize())
+                .expireAfterWrite(cacheConfiguration.getTtl().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public PublishingStatus getPublishingStatus(EomFile eomFile, String transactionId, Boolean preview) {
+        DecisionKey key = new DecisionKey(eomFile.getUuid(), EomFileHashing.contentHash(eomFile), preview);
+        PublishingStatus cached = decisions.getIfPresent(key);
+        if (cached != null) {
+            hits.mark();
+            return cached;
+        }
+
+        misses.mark();
+        PublishingStatus publishingStatus = super.getPublishingStatus(eomFile, transactionId, preview);
+        decisions.put(key, publishingStatus);
+        return publishingStatus;
+    }
+
+    private static final class DecisionKey {
+
+        private final String uuid;
+        private final HashCode contentHash;
+        private final Boolean preview;
+
+        private DecisionKey(String uuid, HashCode contentHash, Boolean preview) {
+            this.uuid = uuid;
+            this.contentHash = contentHash;
+            this.preview = preview;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DecisionKey that = (DecisionKey) o;
+            return Objects.equals(uuid, that.uuid) &&
+                    Objects.equals(contentHash, that.contentHash) &&
+                    Objects.equals(preview, that.preview);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uuid, contentHash, preview);
+        }
+    }
+}
@@ -149,7 +149,7 @@ public class BodyProcessingStepDefs {
         rulesAndHandlers.put("TRANSFORM INTERACTIVE GRAPHICS", "MethodeOtherVideoXmlEventHandler");
         rulesAndHandlers.put("TRANSFORM OTHER VIDEO TYPES", "MethodeOtherVideoXmlEventHandler");
         rulesAndHandlers.put("WRAP AND TRANSFORM A INLINE IMAGE", "WrappedHandlerXmlEventHandler");
-        rulesAndHandlers.put("REPLACE BLOCK ELEMENT TAG", "SimpleTransformBlockElementEventHandler");
+        rulesAndHandlers.put("REPLACE BLOCK ELEMENT TAG", "TransformBlockElementEventHandler");
 
         when(concordanceApiClient.getConcordancesByIdentifierValues(Collections.singletonList(TME_ID_NOT_CONCORDED))).thenReturn(concordancesEmpty);
         when(concordanceApiClient.getConcordancesByIdentifierValues(Arrays.asList(TME_ID_CONCORDED, TME_ID_NOT_CONCORDED))).thenReturn(concordancesResponse);
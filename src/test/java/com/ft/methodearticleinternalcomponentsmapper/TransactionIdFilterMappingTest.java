@@ -0,0 +1,105 @@
+package com.ft.methodearticleinternalcomponentsmapper;
+
+import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
+import com.ft.api.util.transactionid.TransactionIdFilter;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.resources.MapResource;
+import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.spi.container.servlet.ServletContainer;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.servlet.ServletTester;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.DispatcherType;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.isEmptyOrNullString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Requests without a transaction ID must still be mapped, which they are only if the transaction ID filter is mapped
+ * to every endpoint that reads one.
+ */
+public class TransactionIdFilterMappingTest {
+
+    private final InternalComponentsMapper internalComponentsMapper = mock(InternalComponentsMapper.class);
+    private final String uuid = UUID.randomUUID().toString();
+    private final ServletTester tester = new ServletTester();
+
+    @Before
+    public void startServer() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), any(String.class), any(), anyBoolean()))
+                .thenReturn(InternalComponents.builder().withUuid(uuid).build());
+
+        for (String pattern : MethodeArticleInternalComponentsMapperApplication.TRANSACTION_ID_URL_PATTERNS) {
+            tester.getContext().addFilter(new FilterHolder(new TransactionIdFilter()), pattern, EnumSet.of(DispatcherType.REQUEST));
+        }
+        DefaultResourceConfig resourceConfig = new DefaultResourceConfig();
+        resourceConfig.getFeatures().put(ResourceConfig.FEATURE_DISABLE_WADL, true);
+        resourceConfig.getSingletons().add(new MapResource(internalComponentsMapper));
+        resourceConfig.getSingletons().add(new JacksonJsonProvider());
+        tester.addServlet(new ServletHolder(new ServletContainer(resourceConfig)), "/*");
+        tester.start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        tester.stop();
+    }
+
+    @Test
+    public void thatMapRequestWithoutTransactionIdIsMapped() throws Exception {
+        String response = post("/map", "application/json", eomFileJson());
+
+        assertThat(response, startsWith("HTTP/1.1 200"));
+        assertThat(response, containsString(uuid));
+        assertThat(transactionIdMappedWith(), not(isEmptyOrNullString()));
+    }
+
+    @Test
+    public void thatBatchRequestWithoutTransactionIdIsMapped() throws Exception {
+        String response = post("/map/batch", "application/x-ndjson", eomFileJson() + "\n");
+
+        assertThat(response, startsWith("HTTP/1.1 200"));
+        assertThat(response, containsString(uuid));
+        assertThat(transactionIdMappedWith(), not(isEmptyOrNullString()));
+    }
+
+    private String post(String path, String contentType, String body) throws Exception {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        return tester.getResponses("POST " + path + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Length: " + content.length + "\r\n"
+                + "Connection: close\r\n"
+                + "\r\n"
+                + body);
+    }
+
+    private String transactionIdMappedWith() {
+        ArgumentCaptor<String> transactionId = ArgumentCaptor.forClass(String.class);
+        verify(internalComponentsMapper).map(any(EomFile.class), transactionId.capture(), any(), anyBoolean());
+        return transactionId.getValue();
+    }
+
+    private String eomFileJson() {
+        return "{\"uuid\":\"" + uuid + "\",\"type\":\"EOM::CompoundStory\",\"value\":\"PGRvYy8+\",\"attributes\":\"<ObjectMetadata/>\"}";
+    }
+}
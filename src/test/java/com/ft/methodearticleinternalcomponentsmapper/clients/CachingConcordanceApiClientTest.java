@@ -0,0 +1,189 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.exception.ConcordanceApiException;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.ConceptView;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordance;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Concordances;
+import com.ft.methodearticleinternalcomponentsmapper.model.concordance.Identifier;
+import com.google.common.base.Ticker;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingConcordanceApiClientTest {
+
+    private static final String TME_AUTHORITY = "http://api.ft.com/system/FT-TME";
+    private static final String CONCORDED_ID = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X0FBUEw=-T04=";
+    private static final String OTHER_CONCORDED_ID = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X01TRlQ=-T04=";
+    private static final String NOT_CONCORDED_ID = "TnN0ZWluX09OX0ZvcnR1bmVDb21wYW55X05PTkU=-T04=";
+
+    @Mock
+    private Client jerseyClient;
+    @Mock
+    private WebResource webResource;
+    @Mock
+    private WebResource.Builder webResourceBuilder;
+    @Mock
+    private ClientResponse clientResponse;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private MetricRegistry metrics;
+    private CachingConcordanceApiClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        String hostHeader = "public-concordances-api";
+        metrics = new MetricRegistry();
+        client = newClient(100);
+
+        when(jerseyClient.resource(any(URI.class))).thenReturn(webResource);
+        when(webResource.header("Host", hostHeader)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.get(ClientResponse.class)).thenReturn(clientResponse);
+        when(clientResponse.getStatus()).thenReturn(200);
+    }
+
+    @Test
+    public void thatCachedConcordancesAreNotRequestedAgain() throws Exception {
+        when(clientResponse.getEntity(Concordances.class)).thenReturn(concordances(CONCORDED_ID));
+
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        Concordances concordances = client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+
+        verify(jerseyClient, times(1)).resource(any(URI.class));
+        assertThat(concordances.getConcordances()).hasSize(1);
+        assertThat(concordances.getConcordances().get(0).getIdentifier().getIdentifierValue()).isEqualTo(CONCORDED_ID);
+        assertThat(meter("cache-hits")).isEqualTo(1);
+        assertThat(meter("cache-misses")).isEqualTo(1);
+    }
+
+    @Test
+    public void thatOnlyUncachedIdentifierValuesAreRequested() throws Exception {
+        when(clientResponse.getEntity(Concordances.class))
+                .thenReturn(concordances(CONCORDED_ID))
+                .thenReturn(concordances(OTHER_CONCORDED_ID));
+
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        Concordances concordances = client.getConcordancesByIdentifierValues(Arrays.asList(CONCORDED_ID, OTHER_CONCORDED_ID));
+
+        List<URI> requested = requestedUris(2);
+        assertThat(requested.get(1).toString()).contains("identifierValue=" + OTHER_CONCORDED_ID.replace("=", "%3D"));
+        assertThat(requested.get(1).toString()).doesNotContain(CONCORDED_ID.replace("=", "%3D"));
+        assertThat(concordances.getConcordances()).hasSize(2);
+    }
+
+    @Test
+    public void thatIdentifierValuesWithNoConcordanceAreCachedUntilNegativeTtl() throws Exception {
+        when(clientResponse.getEntity(Concordances.class)).thenReturn(new Concordances(Collections.emptyList()));
+
+        client.getConcordancesByIdentifierValues(Collections.singletonList(NOT_CONCORDED_ID));
+        Concordances concordances = client.getConcordancesByIdentifierValues(Collections.singletonList(NOT_CONCORDED_ID));
+
+        verify(jerseyClient, times(1)).resource(any(URI.class));
+        assertThat(concordances.getConcordances()).isEmpty();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5) + 1);
+        client.getConcordancesByIdentifierValues(Collections.singletonList(NOT_CONCORDED_ID));
+
+        verify(jerseyClient, times(2)).resource(any(URI.class));
+    }
+
+    @Test
+    public void thatConcordancesAreRequestedAgainAfterTtl() throws Exception {
+        when(clientResponse.getEntity(Concordances.class)).thenReturn(concordances(CONCORDED_ID));
+
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5) + 1);
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        verify(jerseyClient, times(1)).resource(any(URI.class));
+
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(1));
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        verify(jerseyClient, times(2)).resource(any(URI.class));
+    }
+
+    @Test
+    public void thatNothingIsCachedWhenTheRequestFails() throws Exception {
+        when(clientResponse.getStatus()).thenReturn(503).thenReturn(200);
+        when(clientResponse.getEntity(Concordances.class)).thenReturn(concordances(CONCORDED_ID));
+
+        try {
+            client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+            fail("expected ConcordanceApiException");
+        } catch (ConcordanceApiException e) {
+            // expected
+        }
+        Concordances concordances = client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+
+        verify(jerseyClient, times(2)).resource(any(URI.class));
+        assertThat(concordances.getConcordances()).hasSize(1);
+    }
+
+    @Test
+    public void thatEvictionsAreCounted() throws Exception {
+        client = newClient(1);
+        when(clientResponse.getEntity(Concordances.class))
+                .thenReturn(concordances(CONCORDED_ID))
+                .thenReturn(concordances(OTHER_CONCORDED_ID));
+
+        client.getConcordancesByIdentifierValues(Collections.singletonList(CONCORDED_ID));
+        client.getConcordancesByIdentifierValues(Collections.singletonList(OTHER_CONCORDED_ID));
+
+        assertThat(meter("cache-evictions")).isEqualTo(1);
+    }
+
+    private CachingConcordanceApiClient newClient(long maximumSize) {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(maximumSize, Duration.hours(1), Duration.minutes(5));
+        return new CachingConcordanceApiClient(jerseyClient, "localhost", 8080, "concordances",
+                "public-concordances-api", cacheConfiguration, metrics, ticker);
+    }
+
+    private List<URI> requestedUris(int count) {
+        ArgumentCaptor<URI> uris = ArgumentCaptor.forClass(URI.class);
+        verify(jerseyClient, atLeastOnce()).resource(uris.capture());
+        assertThat(uris.getAllValues()).hasSize(count);
+        return uris.getAllValues();
+    }
+
+    private long meter(String name) {
+        return metrics.meter(MetricRegistry.name(CachingConcordanceApiClient.class, name)).getCount();
+    }
+
+    private static Concordances concordances(String identifierValue) {
+        return new Concordances(Collections.singletonList(new Concordance(
+                new ConceptView("http://api.ft.com/things/0d3f7c1d-6b5a-4a48-9a4e-1c1b9b7e1a11",
+                        "http://api.ft.com/organisations/0d3f7c1d-6b5a-4a48-9a4e-1c1b9b7e1a11"),
+                new Identifier(TME_AUTHORITY, identifierValue))));
+    }
+}
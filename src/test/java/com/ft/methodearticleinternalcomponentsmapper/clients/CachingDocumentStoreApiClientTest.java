@@ -0,0 +1,276 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.exception.DocumentStoreApiUnavailableException;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransientUuidResolverException;
+import com.ft.methodearticleinternalcomponentsmapper.model.Content;
+import com.google.common.base.Ticker;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.ws.rs.core.MediaType;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.ft.api.util.transactionid.TransactionIdUtils.TRANSACTION_ID_HEADER;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingDocumentStoreApiClientTest {
+
+    private static final String TRANSACTION_ID = "transactionId";
+    private static final String HOST_HEADER = "document-store-api";
+    private static final String UUID = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String OTHER_UUID = "2fd9b0b5-5b8f-4b71-a20c-2a8f2ea6e0f3";
+    private static final String MISSING_UUID = "0d3f7c1d-6b5a-4a48-9a4e-1c1b9b7e1a11";
+    private static final String AUTHORITY = "http://api.ft.com/system/FT-LABS-WP-1-24";
+    private static final String IDENTIFIER_VALUE = "http://blogs.ft.com/the-world/?p=2192";
+
+    @Mock
+    private Client jerseyClient;
+    @Mock
+    private WebResource webResource;
+    @Mock
+    private WebResource.Builder webResourceBuilder;
+    @Mock
+    private ClientResponse clientResponse;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private MetricRegistry metrics;
+    private CachingDocumentStoreApiClient client;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        client = new CachingDocumentStoreApiClient(jerseyClient, "localhost", 8080, HOST_HEADER,
+                new CacheConfiguration(100, Duration.hours(1), Duration.minutes(1)), metrics, ticker);
+
+        when(jerseyClient.resource(any(URI.class))).thenReturn(webResource);
+        when(webResource.accept(MediaType.APPLICATION_JSON_TYPE)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.type(MediaType.APPLICATION_JSON_TYPE)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.header(TRANSACTION_ID_HEADER, TRANSACTION_ID)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.header("Host", HOST_HEADER)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.post(eq(ClientResponse.class), anyList())).thenReturn(clientResponse);
+        when(clientResponse.getStatus()).thenReturn(200);
+    }
+
+    @Test
+    public void thatOnlyUnknownUuidsAreRequested() {
+        when(clientResponse.getEntity(String.class))
+                .thenReturn(json(UUID))
+                .thenReturn(json(OTHER_UUID));
+
+        client.getContentForUuids(Collections.singletonList(UUID), TRANSACTION_ID);
+        List<Content> content = client.getContentForUuids(Arrays.asList(UUID, OTHER_UUID), TRANSACTION_ID);
+
+        assertThat(postedUuids(2).get(1)).containsExactly(OTHER_UUID);
+        assertThat(content).containsOnly(new Content(UUID, "Article"), new Content(OTHER_UUID, "Article"));
+        assertThat(meter("content-cache-hits")).isEqualTo(1);
+        assertThat(meter("content-cache-misses")).isEqualTo(2);
+    }
+
+    @Test
+    public void thatUuidsMissingFromTheDocumentStoreAreCachedUntilNegativeTtl() {
+        when(clientResponse.getEntity(String.class)).thenReturn(json(UUID));
+
+        client.getContentForUuids(Arrays.asList(UUID, MISSING_UUID), TRANSACTION_ID);
+        List<Content> content = client.getContentForUuids(Arrays.asList(UUID, MISSING_UUID), TRANSACTION_ID);
+
+        assertThat(content).containsOnly(new Content(UUID, "Article"));
+        postedUuids(1);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1) + 1);
+        client.getContentForUuids(Arrays.asList(UUID, MISSING_UUID), TRANSACTION_ID);
+
+        assertThat(postedUuids(2).get(1)).containsExactly(MISSING_UUID);
+    }
+
+    @Test
+    public void thatContentChangeInvalidatesTheUuid() {
+        when(clientResponse.getEntity(String.class)).thenReturn(json(UUID));
+
+        client.getContentForUuids(Collections.singletonList(UUID), TRANSACTION_ID);
+        client.contentChanged(UUID);
+        client.getContentForUuids(Collections.singletonList(UUID), TRANSACTION_ID);
+
+        assertThat(postedUuids(2).get(1)).containsExactly(UUID);
+        assertThat(meter("content-cache-invalidations")).isEqualTo(1);
+    }
+
+    @Test
+    public void thatNothingIsCachedWhenTheRequestFails() {
+        when(clientResponse.getStatus()).thenReturn(503).thenReturn(200);
+        when(clientResponse.getEntity(String.class)).thenReturn(json(UUID));
+
+        try {
+            client.getContentForUuids(Collections.singletonList(UUID), TRANSACTION_ID);
+            fail("expected DocumentStoreApiUnavailableException");
+        } catch (DocumentStoreApiUnavailableException e) {
+            // expected
+        }
+        List<Content> content = client.getContentForUuids(Collections.singletonList(UUID), TRANSACTION_ID);
+
+        assertThat(content).containsOnly(new Content(UUID, "Article"));
+        postedUuids(2);
+    }
+
+    @Test
+    public void thatPresentUuidIsNotRequestedAgain() {
+        getResponse(200);
+
+        assertThat(client.isUUIDPresent(UUID, TRANSACTION_ID)).isTrue();
+        assertThat(client.isUUIDPresent(UUID, TRANSACTION_ID)).isTrue();
+
+        verify(webResourceBuilder, times(1)).get(ClientResponse.class);
+        assertThat(meter("lookup-cache-hits")).isEqualTo(1);
+        assertThat(meter("lookup-cache-misses")).isEqualTo(1);
+    }
+
+    @Test
+    public void thatMissingUuidIsRequestedAgain() {
+        getResponse(404);
+
+        assertThat(client.isUUIDPresent(UUID, TRANSACTION_ID)).isFalse();
+        assertThat(client.isUUIDPresent(UUID, TRANSACTION_ID)).isFalse();
+
+        verify(webResourceBuilder, times(2)).get(ClientResponse.class);
+    }
+
+    @Test
+    public void thatPresentUuidIsRequestedAgainAfterTtlOrContentChange() {
+        getResponse(200);
+
+        client.isUUIDPresent(UUID, TRANSACTION_ID);
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(1) + 1);
+        client.isUUIDPresent(UUID, TRANSACTION_ID);
+        client.contentChanged(UUID);
+        client.isUUIDPresent(UUID, TRANSACTION_ID);
+
+        verify(webResourceBuilder, times(3)).get(ClientResponse.class);
+    }
+
+    @Test
+    public void thatResolvedUuidIsNotRequestedAgain() {
+        ClientResponse resolved = getResponse(301);
+        when(resolved.getLocation()).thenReturn(URI.create("http://localhost:8080/content/" + UUID));
+
+        assertThat(client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID)).isEqualTo(UUID);
+        assertThat(client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID)).isEqualTo(UUID);
+
+        verify(resolved, times(1)).getLocation();
+    }
+
+    @Test
+    public void thatResolvedUuidIsRequestedAgainAfterContentChange() {
+        ClientResponse resolved = getResponse(301);
+        when(resolved.getLocation()).thenReturn(URI.create("http://localhost:8080/content/" + UUID));
+
+        client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID);
+        client.contentChanged(UUID);
+        client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID);
+        client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID);
+
+        verify(resolved, times(2)).getLocation();
+    }
+
+    @Test
+    public void thatUnresolvedUuidIsRequestedAgain() {
+        getResponse(404);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.resolveUUID(AUTHORITY, IDENTIFIER_VALUE, TRANSACTION_ID);
+                fail("expected TransientUuidResolverException");
+            } catch (TransientUuidResolverException e) {
+                // expected
+            }
+        }
+
+        verify(webResourceBuilder, times(2)).get(ClientResponse.class);
+    }
+
+    @Test
+    public void thatConcurrentLookupsOfTheSameUuidShareOneRequest() throws Exception {
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        ClientResponse found = getResponse(200);
+        when(webResourceBuilder.get(ClientResponse.class)).thenAnswer(invocation -> {
+            requested.countDown();
+            respond.await();
+            return found;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> client.isUUIDPresent(UUID, TRANSACTION_ID));
+            requested.await();
+            Future<Boolean> second = executor.submit(() -> client.isUUIDPresent(UUID, TRANSACTION_ID));
+            Thread.sleep(100);
+            respond.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(webResourceBuilder, times(1)).get(ClientResponse.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Collection<String>> postedUuids(int calls) {
+        ArgumentCaptor<Collection> uuids = ArgumentCaptor.forClass(Collection.class);
+        verify(webResourceBuilder, times(calls)).post(eq(ClientResponse.class), uuids.capture());
+        return (List<Collection<String>>) (List<?>) uuids.getAllValues();
+    }
+
+    private ClientResponse getResponse(int status) {
+        ClientResponse response = mock(ClientResponse.class);
+        when(response.getStatus()).thenReturn(status);
+        when(webResource.header(TRANSACTION_ID_HEADER, TRANSACTION_ID)).thenReturn(webResourceBuilder);
+        when(webResource.header("Host", HOST_HEADER)).thenReturn(webResourceBuilder);
+        when(webResourceBuilder.get(ClientResponse.class)).thenReturn(response);
+        return response;
+    }
+
+    private long meter(String name) {
+        return metrics.meter(MetricRegistry.name(CachingDocumentStoreApiClient.class, name)).getCount();
+    }
+
+    private static String json(String uuid) {
+        return "[{\"uuid\":\"" + uuid + "\", \"type\": \"Article\"}]";
+    }
+}
@@ -0,0 +1,65 @@
+package com.ft.methodearticleinternalcomponentsmapper.clients;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RemoteCallTimingFilterTest {
+
+    private ClientHandler handler;
+    private MetricRegistry metrics;
+    private Client client;
+
+    @Before
+    public void setUp() {
+        handler = mock(ClientHandler.class);
+        metrics = new MetricRegistry();
+        client = new Client(handler);
+        client.addFilter(new RemoteCallTimingFilter(metrics, "document-store-api"));
+    }
+
+    @Test
+    public void thatCallsAreTimedPerMethodAndOperation() {
+        when(handler.handle(any(ClientRequest.class))).thenReturn(mock(ClientResponse.class));
+
+        client.resource(URI.create("http://localhost:8080/content-query?identifierValue=x")).get(ClientResponse.class);
+        client.resource(URI.create("http://localhost:8080/content/fbbee07f-5054-4a42-b596-64e0625d19a6")).get(ClientResponse.class);
+        client.resource(URI.create("http://localhost:8080/content?mget=true")).post(ClientResponse.class);
+
+        assertThat(timer("get", "content-query"), is(1L));
+        assertThat(timer("get", "content"), is(1L));
+        assertThat(timer("post", "content"), is(1L));
+    }
+
+    @Test
+    public void thatFailedCallIsTimed() {
+        when(handler.handle(any(ClientRequest.class))).thenThrow(new ClientHandlerException("connection refused"));
+
+        try {
+            client.resource(URI.create("http://localhost:8080/")).get(ClientResponse.class);
+            fail("expected ClientHandlerException");
+        } catch (ClientHandlerException e) {
+            // expected
+        }
+
+        assertThat(timer("get", "root"), is(1L));
+    }
+
+    private long timer(String method, String operation) {
+        return metrics.timer(MetricRegistry.name(RemoteCallTimingFilter.class, "document-store-api", method, operation)).getCount();
+    }
+}
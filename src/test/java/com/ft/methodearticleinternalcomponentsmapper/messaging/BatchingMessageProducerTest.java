@@ -0,0 +1,123 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.messagequeueproducer.MessageProducer;
+import com.ft.messaging.standards.message.v1.Message;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingMessageProducerTest {
+
+    @Mock
+    private MessageProducer producer;
+
+    private MetricRegistry metrics = new MetricRegistry();
+    private List<List<Message>> sentBatches = Collections.synchronizedList(new ArrayList<>());
+    private BatchingMessageProducer batchingProducer;
+
+    @After
+    public void tearDown() throws Exception {
+        if (batchingProducer != null) {
+            batchingProducer.stop();
+        }
+    }
+
+    @Test
+    public void thatFullBatchesAreSentInOrder() throws Exception {
+        recordSentBatches();
+        batchingProducer = new BatchingMessageProducer(producer, 3, 60000, 2, 5000, metrics);
+        List<Message> messages = messages(6);
+
+        for (Message message : messages) {
+            batchingProducer.send(Collections.singletonList(message));
+        }
+        verify(producer, timeout(5000).times(2)).send(anyListOf(Message.class));
+
+        assertThat(sentBatches, equalTo(Arrays.asList(messages.subList(0, 3), messages.subList(3, 6))));
+        assertThat(metrics.histogram("com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer.batch-size")
+                .getCount(), equalTo(2L));
+    }
+
+    @Test
+    public void thatPartialBatchIsSentAfterLingerTime() throws Exception {
+        recordSentBatches();
+        batchingProducer = new BatchingMessageProducer(producer, 10, 50, 2, 5000, metrics);
+        List<Message> messages = messages(2);
+
+        batchingProducer.send(messages);
+
+        verify(producer, timeout(5000)).send(anyListOf(Message.class));
+        assertThat(sentBatches, equalTo(Collections.singletonList(messages)));
+    }
+
+    @Test
+    public void thatPartialBatchIsSentOnStop() throws Exception {
+        recordSentBatches();
+        batchingProducer = new BatchingMessageProducer(producer, 10, 60000, 2, 5000, metrics);
+        List<Message> messages = messages(4);
+
+        batchingProducer.send(messages);
+        verify(producer, never()).send(anyListOf(Message.class));
+        batchingProducer.stop();
+
+        assertThat(sentBatches, equalTo(Collections.singletonList(messages)));
+    }
+
+    @Test
+    public void thatFailedBatchIsCountedAndLaterBatchesAreStillSent() throws Exception {
+        List<Message> messages = messages(4);
+        doThrow(new RuntimeException("proxy unavailable")).when(producer).send(messages.subList(0, 2));
+        batchingProducer = new BatchingMessageProducer(producer, 2, 60000, 2, 5000, metrics);
+
+        batchingProducer.send(messages);
+        batchingProducer.stop();
+
+        verify(producer).send(messages.subList(2, 4));
+        assertThat(metrics.meter("com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer.failed-batches")
+                .getCount(), equalTo(1L));
+        assertThat(metrics.meter("com.ft.methodearticleinternalcomponentsmapper.messaging.BatchingMessageProducer.failed-messages")
+                .getCount(), equalTo(2L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void thatMessagesAreRejectedAfterStop() throws Exception {
+        batchingProducer = new BatchingMessageProducer(producer, 2, 60000, 2, 5000, metrics);
+        batchingProducer.stop();
+
+        batchingProducer.send(messages(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordSentBatches() {
+        doAnswer(invocation -> sentBatches.add(new ArrayList<>((List<Message>) invocation.getArguments()[0])))
+                .when(producer).send(anyListOf(Message.class));
+    }
+
+    private static List<Message> messages(int count) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setMessageBody("message " + i);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
@@ -1,26 +1,39 @@
 package com.ft.methodearticleinternalcomponentsmapper.messaging;
 
+import com.codahale.metrics.MetricRegistry;
 import com.ft.messagequeueproducer.MessageProducer;
 import com.ft.messaging.standards.message.v1.Message;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.DeduplicationConfiguration;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
 import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.ft.methodearticleinternalcomponentsmapper.util.EomFileHashing;
+import io.dropwizard.util.Duration;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Date;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,9 +64,9 @@ public class MessageProducingInternalComponentsMapperTest {
         InternalComponents mappedArticle = new InternalComponents.Builder()
                 .withUuid(UUID.randomUUID().toString())
                 .build();
-        when(mapper.map(any(), eq("tid"), eq(lastModified), anyBoolean())).thenReturn(mappedArticle);
+        when(mapper.map(any(ParsedEomFile.class), eq("tid"), eq(lastModified), anyBoolean())).thenReturn(mappedArticle);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().build(), "tid", lastModified);
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().build()), "tid", lastModified);
 
         verify(messageBuilder).buildMessage(mappedArticle);
     }
@@ -62,10 +75,10 @@ public class MessageProducingInternalComponentsMapperTest {
     public void thatMessageWithContentIsSentToQueue() {
         InternalComponents mockedContent = mock(InternalComponents.class);
         Message mockedMessage = mock(Message.class);
-        when(mapper.map(any(), anyString(), any(), eq(false))).thenReturn(mockedContent);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenReturn(mockedContent);
         when(messageBuilder.buildMessage(mockedContent)).thenReturn(mockedMessage);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().build(), "tid", new Date());
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().build()), "tid", new Date());
 
         verify(producer).send(Collections.singletonList(mockedMessage));
     }
@@ -78,11 +91,82 @@ public class MessageProducingInternalComponentsMapperTest {
         Message deletedContentMsg = mock(Message.class);
         MethodeMarkedDeletedException mockException = mock(MethodeMarkedDeletedException.class);
 
-        when(mapper.map(any(), anyString(), any(), eq(false))).thenThrow(mockException);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenThrow(mockException);
         when(messageBuilder.buildDeletedInternalComponentsMessage(uuid, tid, date)).thenReturn(deletedContentMsg);
 
-        msgProducingArticleMapper.mapInternalComponents(new EomFile.Builder().withUuid(uuid).build(), tid, date);
+        msgProducingArticleMapper.mapInternalComponents(new ParsedEomFile(new EomFile.Builder().withUuid(uuid).build()), tid, date);
 
         verify(producer).send(Collections.singletonList(deletedContentMsg));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void thatDuplicatePublishEventIsNotMappedAgain() {
+        MessageProducingInternalComponentsMapper deduplicatingMapper = deduplicatingMapper();
+        InternalComponents mockedContent = mock(InternalComponents.class);
+        Message mockedMessage = mock(Message.class);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenReturn(mockedContent);
+        when(messageBuilder.buildMessage(mockedContent)).thenReturn(mockedMessage);
+
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>one</doc>"), "tid_1", new Date());
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>one</doc>"), "tid_2", new Date());
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>two</doc>"), "tid_3", new Date());
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>one</doc>"), "tid_4", new Date());
+
+        verify(mapper, times(3)).map(any(ParsedEomFile.class), anyString(), any(), eq(false));
+        verify(producer, times(3)).send(Collections.singletonList(mockedMessage));
+    }
+
+    @Test
+    public void thatPublishEventIsMappedAgainIfNothingWasSent() {
+        MessageProducingInternalComponentsMapper deduplicatingMapper = deduplicatingMapper();
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false)))
+                .thenThrow(new TransformationException("failed"))
+                .thenReturn(mock(InternalComponents.class));
+
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>one</doc>"), "tid_1", new Date());
+        deduplicatingMapper.mapInternalComponents(parsedEomFile("<doc>one</doc>"), "tid_2", new Date());
+
+        verify(mapper, times(2)).map(any(ParsedEomFile.class), anyString(), any(), eq(false));
+        verify(producer, times(1)).send(anyListOf(Message.class));
+    }
+
+    @Test
+    public void thatPublishEventIsMappedAgainIfItsBatchFailedToSend() throws Exception {
+        Message mockedMessage = mock(Message.class);
+        when(mapper.map(any(ParsedEomFile.class), anyString(), any(), eq(false))).thenReturn(mock(InternalComponents.class));
+        when(messageBuilder.buildMessage(any(InternalComponents.class))).thenReturn(mockedMessage);
+        doThrow(new RuntimeException("proxy unavailable")).doNothing().when(producer).send(anyListOf(Message.class));
+
+        PublishEventDeduplicator deduplicator = deduplicator();
+        BatchingMessageProducer batchingProducer = new BatchingMessageProducer(producer, 1, 60000, 1, 5000, new MetricRegistry());
+        MessageProducingInternalComponentsMapper deduplicatingMapper =
+                new MessageProducingInternalComponentsMapper(messageBuilder, batchingProducer, mapper, deduplicator);
+        ParsedEomFile event = parsedEomFile("<doc>one</doc>");
+
+        deduplicatingMapper.mapInternalComponents(event, "tid_1", new Date());
+        verify(producer, timeout(5000)).send(anyListOf(Message.class));
+        deduplicatingMapper.mapInternalComponents(event, "tid_2", new Date());
+        batchingProducer.stop();
+
+        verify(mapper, times(2)).map(any(ParsedEomFile.class), anyString(), any(), eq(false));
+        verify(producer, times(2)).send(Collections.singletonList(mockedMessage));
+        assertThat(deduplicator.isDuplicate(event.getUuid(), EomFileHashing.contentHash(event.getEomFile())), is(true));
+    }
+
+    private MessageProducingInternalComponentsMapper deduplicatingMapper() {
+        return new MessageProducingInternalComponentsMapper(messageBuilder, producer, mapper, deduplicator());
+    }
+
+    private static PublishEventDeduplicator deduplicator() {
+        return new PublishEventDeduplicator(new DeduplicationConfiguration(Duration.minutes(1), 100), new MetricRegistry());
+    }
+
+    private static ParsedEomFile parsedEomFile(String value) {
+        return new ParsedEomFile(new EomFile.Builder()
+                .withUuid("fbbee07f-5054-4a42-b596-64e0625d19a6")
+                .withType("EOM::CompoundStory")
+                .withValue(value.getBytes(StandardCharsets.UTF_8))
+                .withWorkflowStatus("Stories/WebReady")
+                .build());
+    }
+}
@@ -6,23 +6,36 @@ import com.ft.messaging.standards.message.v1.Message;
 import com.ft.messaging.standards.message.v1.SystemId;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleInternalComponentsMapperException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 
+import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.CountDownLatch;
 
 import javax.ws.rs.core.UriBuilder;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +44,7 @@ public class NativeCmsPublicationEventsListenerTest {
 
     private static final String SYSTEM_CODE = "foobar";
     private static final String TX_ID = "tid_foo";
+    private static final String UUID = "2fd9b0b5-5b8f-4b71-a20c-2a8f2ea6e0f3";
     private static final String ATTRIBUTES_DOC_TEMPLATE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
         + "<!DOCTYPE ObjectMetadata SYSTEM \"/SysConfig/Classify/FTStories/classify.dtd\">"
         + "<ObjectMetadata><EditorialNotes><Sources><Source><SourceCode>%s</SourceCode></Source></Sources></EditorialNotes></ObjectMetadata>";
@@ -87,47 +101,102 @@ public class NativeCmsPublicationEventsListenerTest {
         verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     public void thatMessageIsIgnoredIfIOExceptionIsThrownDuringTypeFiltering() throws Exception {
-        Message mockMsg = mock(Message.class);
-        when(mockMsg.getOriginSystemId()).thenReturn(SystemId.systemIdFromCode(SYSTEM_CODE));
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody("{\"type\": \"EOM::CompoundStory\", \"attributes\": ");
+
+        listener.onMessage(msg, TX_ID);
+
+        verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test (expected = MethodeArticleInternalComponentsMapperException.class)
+    public void thatServiceExceptionIsThrownIfIOExceptionIsThrownDuringPreMapping() throws Exception {
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withType("EOM::CompoundStory")
+                                .withAttributes(ATTRIBUTES_WITH_FT_SOURCE)
+                                .build()
+                )
+        );
 
         ObjectReader mockReader = mock(ObjectReader.class);
-        when(mockReader.readValue(mockMsg.getMessageBody())).thenThrow(IOException.class);
+        when(mockReader.readValue(msg.getMessageBody())).thenThrow(IOException.class);
 
         ObjectMapper mockObjectMapper = mock(ObjectMapper.class);
+        when(mockObjectMapper.getFactory()).thenReturn(objectMapper.getFactory());
         when(mockObjectMapper.reader(EomFile.class)).thenReturn(mockReader);
 
         NativeCmsPublicationEventsListener listener =
                 new NativeCmsPublicationEventsListener(mockObjectMapper, mapper, SYSTEM_CODE);
 
-        listener.onMessage(mockMsg, TX_ID);
+        listener.onMessage(msg, TX_ID);
 
         verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
     }
 
-    @Test (expected = MethodeArticleInternalComponentsMapperException.class)
-    public void thatServiceExceptionIsThrownIfIOExceptionIsThrownDuringPreMapping() throws Exception {
-        EomFile mockEomFile = mock(EomFile.class);
-        when(mockEomFile.getType()).thenReturn("EOM::CompoundStory");
-        when(mockEomFile.getAttributes()).thenReturn(ATTRIBUTES_WITH_FT_SOURCE);
-        
-        Message mockMsg = mock(Message.class);
-        when(mockMsg.getOriginSystemId()).thenReturn(SystemId.systemIdFromCode(SYSTEM_CODE));
+    @Test
+    public void thatSkippedMessageIsNotDeserialized() throws Exception {
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withType("EOM::Story")
+                                .withValue("<doc/>".getBytes("UTF-8"))
+                                .withAttributes(ATTRIBUTES_WITH_FT_SOURCE)
+                                .build()
+                )
+        );
 
-        ObjectReader mockReader = mock(ObjectReader.class);
-        when(mockReader.readValue(mockMsg.getMessageBody())).thenReturn(mockEomFile).thenThrow(IOException.class);
+        ObjectMapper spyObjectMapper = spy(objectMapper);
+        NativeCmsPublicationEventsListener listener =
+                new NativeCmsPublicationEventsListener(spyObjectMapper, mapper, SYSTEM_CODE);
 
-        ObjectMapper mockObjectMapper = mock(ObjectMapper.class);
-        when(mockObjectMapper.reader(EomFile.class)).thenReturn(mockReader);
+        listener.onMessage(msg, TX_ID);
+
+        verify(spyObjectMapper, never()).reader(EomFile.class);
+        verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
+    }
+
+    @Test
+    public void thatMappedMessageIsDeserializedOnce() throws Exception {
+        byte[] value = "<doc/>".getBytes("UTF-8");
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withUuid(UUID)
+                                .withType("EOM::CompoundStory")
+                                .withValue(value)
+                                .withAttributes(ATTRIBUTES_WITH_FT_SOURCE)
+                                .build()
+                )
+        );
 
+        ObjectMapper spyObjectMapper = spy(objectMapper);
         NativeCmsPublicationEventsListener listener =
-                new NativeCmsPublicationEventsListener(mockObjectMapper, mapper, SYSTEM_CODE);
+                new NativeCmsPublicationEventsListener(spyObjectMapper, mapper, SYSTEM_CODE);
 
-        listener.onMessage(mockMsg, TX_ID);
+        listener.onMessage(msg, TX_ID);
 
-        verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
+        verify(spyObjectMapper, times(1)).reader(EomFile.class);
+        ArgumentCaptor<ParsedEomFile> mapped = ArgumentCaptor.forClass(ParsedEomFile.class);
+        verify(mapper).mapInternalComponents(mapped.capture(), eq(TX_ID), any(Date.class));
+        assertThat(mapped.getValue().getUuid(), is(UUID));
+        assertThat(mapped.getValue().getEomFile().getValue(), is(value));
+        assertThat(mapped.getValue().getSourceCode(), is("FT"));
     }
 
     @Test
@@ -167,4 +236,71 @@ public class NativeCmsPublicationEventsListenerTest {
       
       verify(mapper, never()).mapInternalComponents(Matchers.any(), anyString(), Matchers.any());
     }
+
+    @Test(timeout = 10000)
+    public void thatMessageIsMappedOnMappingExecutorWhenConfigured() throws Exception {
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withUuid(UUID)
+                                .withType("EOM::CompoundStory")
+                                .withAttributes(ATTRIBUTES_WITH_FT_SOURCE)
+                                .build()
+                )
+        );
+        CountDownLatch mappingReleased = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            mappingReleased.await();
+            throw new MethodeArticleInternalComponentsMapperException("test");
+        }).when(mapper).mapInternalComponents(any(ParsedEomFile.class), anyString(), any(Date.class));
+
+        PartitionedExecutor executor = new PartitionedExecutor("test-%d", 2, 1, 5000);
+        NativeCmsPublicationEventsListener listener =
+                new NativeCmsPublicationEventsListener(objectMapper, mapper, SYSTEM_CODE, executor, null);
+
+        // acknowledged once queued: the first message is still mapping and the second is waiting behind it
+        assertThat(listener.onMessage(msg, TX_ID), is(true));
+        assertThat(listener.onMessage(msg, TX_ID), is(true));
+        verify(mapper, atMost(1)).mapInternalComponents(any(ParsedEomFile.class), anyString(), any(Date.class));
+
+        mappingReleased.countDown();
+        executor.stop();
+
+        verify(mapper, times(2)).mapInternalComponents(argThat(hasUuid(UUID)), eq(TX_ID), any(Date.class));
+    }
+
+    @Test
+    public void thatContentChangeIsNotifiedForMessagesThatAreNotMapped() throws Exception {
+        Message msg = new Message();
+        msg.setOriginSystemId(SystemId.systemIdFromCode(SYSTEM_CODE));
+        msg.setMessageTimestamp(new Date());
+        msg.setMessageBody(
+                objectMapper.writeValueAsString(
+                        new EomFile.Builder()
+                                .withUuid(UUID)
+                                .withType("Image")
+                                .build()
+                )
+        );
+        ContentChangeListener contentChangeListener = mock(ContentChangeListener.class);
+        NativeCmsPublicationEventsListener listener =
+                new NativeCmsPublicationEventsListener(objectMapper, mapper, SYSTEM_CODE, null, contentChangeListener);
+
+        assertThat(listener.onMessage(msg, TX_ID), is(true));
+
+        verify(contentChangeListener).contentChanged(UUID);
+        verify(mapper, never()).mapInternalComponents(any(ParsedEomFile.class), anyString(), any(Date.class));
+    }
+
+    private static Matcher<ParsedEomFile> hasUuid(String uuid) {
+        return new ArgumentMatcher<ParsedEomFile>() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof ParsedEomFile && uuid.equals(((ParsedEomFile) argument).getUuid());
+            }
+        };
+    }
 }
@@ -0,0 +1,151 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedExecutorTest {
+
+    private PartitionedExecutor executor;
+
+    @After
+    public void tearDown() throws Exception {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void thatTasksForTheSameKeyRunInSubmissionOrder() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 4, 8, 5000);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            executor.execute("uuid", () -> executed.add(sequence));
+        }
+        executor.stop();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertThat(executed, equalTo(expected));
+    }
+
+    @Test
+    public void thatTasksForDifferentKeysRunConcurrently() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 2, 1, 5000);
+        String first = keyFor(0);
+        String second = keyFor(1);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        executor.execute(first, () -> awaitQuietly(countDownAndGet(bothRunning)));
+        executor.execute(second, () -> awaitQuietly(countDownAndGet(bothRunning)));
+
+        assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void thatSubmitterBlocksWhilePartitionQueueIsFull() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 1, 1, 5000);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(1);
+
+        executor.execute("uuid", () -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.execute("uuid", () -> { });
+
+        Thread submitter = new Thread(() -> {
+            executor.execute("uuid", () -> { });
+            submitted.countDown();
+        });
+        submitter.start();
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS), is(false));
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void thatQueuedTasksAreRunOnStop() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 1, 10, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        executor.execute("uuid", () -> awaitQuietly(release));
+        executor.execute("uuid", () -> executed.add(1));
+        executor.execute("uuid", () -> executed.add(2));
+        release.countDown();
+        executor.stop();
+
+        assertThat(executed, contains(1, 2));
+    }
+
+    @Test
+    public void thatTasksRunWithTheLoggingContextTheyWereSubmittedWith() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 1, 10, 5000);
+        List<String> transactionIds = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            MDC.put("transaction_id", "tid_first");
+            executor.execute("uuid", () -> transactionIds.add(MDC.get("transaction_id")));
+            MDC.put("transaction_id", "tid_second");
+            executor.execute("uuid", () -> transactionIds.add(MDC.get("transaction_id")));
+            MDC.clear();
+            executor.execute("uuid", () -> transactionIds.add(MDC.get("transaction_id")));
+        } finally {
+            MDC.clear();
+        }
+        executor.stop();
+
+        assertThat(transactionIds, contains("tid_first", "tid_second", null));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void thatTasksAreRejectedAfterStop() throws Exception {
+        executor = new PartitionedExecutor("test-%d", 1, 1, 5000);
+        executor.stop();
+
+        executor.execute("uuid", () -> { });
+    }
+
+    private String keyFor(int partition) {
+        for (int i = 0; ; i++) {
+            String key = "uuid-" + i;
+            if (((key.hashCode() & Integer.MAX_VALUE) % executor.getPartitionCount()) == partition) {
+                return key;
+            }
+        }
+    }
+
+    private static CountDownLatch countDownAndGet(CountDownLatch latch) {
+        latch.countDown();
+        return latch;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ft.methodearticleinternalcomponentsmapper.messaging;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.DeduplicationConfiguration;
+import com.google.common.base.Ticker;
+import com.google.common.hash.HashCode;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PublishEventDeduplicatorTest {
+
+    private static final String UUID = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final HashCode FIRST = HashCode.fromLong(1L);
+    private static final HashCode SECOND = HashCode.fromLong(2L);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private MetricRegistry metrics;
+    private PublishEventDeduplicator deduplicator;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        deduplicator = new PublishEventDeduplicator(new DeduplicationConfiguration(Duration.minutes(1), 100), metrics, ticker);
+    }
+
+    @Test
+    public void thatSameContentSentWithinWindowIsDuplicate() {
+        deduplicator.sent(UUID, FIRST);
+
+        assertThat(deduplicator.isDuplicate(UUID, FIRST), is(true));
+        assertThat(deduplicator.isDuplicate(UUID, FIRST), is(true));
+        assertThat(suppressed(), is(2L));
+    }
+
+    @Test
+    public void thatContentNotSentIsNotDuplicate() {
+        assertThat(deduplicator.isDuplicate(UUID, FIRST), is(false));
+        assertThat(deduplicator.isDuplicate("e5b0a3b2-6b4f-11e7-b4a4-6f5ec1e7f6a5", FIRST), is(false));
+        assertThat(suppressed(), is(0L));
+    }
+
+    @Test
+    public void thatOnlyLastContentSentIsRemembered() {
+        deduplicator.sent(UUID, FIRST);
+        deduplicator.sent(UUID, SECOND);
+
+        assertThat(deduplicator.isDuplicate(UUID, FIRST), is(false));
+        assertThat(deduplicator.isDuplicate(UUID, SECOND), is(true));
+    }
+
+    @Test
+    public void thatContentIsForgottenAfterWindow() {
+        deduplicator.sent(UUID, FIRST);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1) + 1);
+
+        assertThat(deduplicator.isDuplicate(UUID, FIRST), is(false));
+    }
+
+    private long suppressed() {
+        return metrics.meter(MetricRegistry.name(PublishEventDeduplicator.class, "suppressed-duplicates")).getCount();
+    }
+}
@@ -1,18 +1,39 @@
 package com.ft.methodearticleinternalcomponentsmapper.resources;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ft.api.util.transactionid.TransactionIdUtils;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeMarkedDeletedException;
 import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleNotEligibleForPublishException;
+import com.ft.methodearticleinternalcomponentsmapper.exception.TransformationException;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
 import com.ft.methodearticleinternalcomponentsmapper.transformation.InternalComponentsMapper;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.sun.management.ThreadMXBean;
 import org.apache.http.HttpStatus;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -29,6 +50,7 @@ import static org.mockito.Mockito.when;
 public class MapResourceTest {
 
     private static final String TRANSACTION_ID = "tid_test";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private HttpHeaders httpHeaders = mock(HttpHeaders.class);
     private InternalComponentsMapper internalComponentsMapper = mock(InternalComponentsMapper.class);
@@ -81,4 +103,187 @@ public class MapResourceTest {
             assertThat(wace.getResponse().getStatus(), equalTo(HttpStatus.SC_UNPROCESSABLE_ENTITY));
         }
     }
+
+    @Test
+    public void thatJsonArrayBatchIsMappedToNdjson() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false)))
+                .thenAnswer(invocation -> internalComponents(((EomFile) invocation.getArguments()[0]).getUuid()));
+
+        List<JsonNode> lines = mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 4),
+                "[" + eomFileJson("a") + "," + eomFileJson("b") + "]");
+
+        assertThat(lines.size(), equalTo(2));
+        assertThat(lines.get(0).get("index").asInt(), equalTo(0));
+        assertThat(lines.get(0).get("status").asInt(), equalTo(200));
+        assertThat(lines.get(0).get("content").get("uuid").asText(), equalTo("a"));
+        assertThat(lines.get(1).get("index").asInt(), equalTo(1));
+        assertThat(lines.get(1).get("content").get("uuid").asText(), equalTo("b"));
+    }
+
+    @Test
+    public void thatNdjsonBatchItemsFailIndependently() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(true)))
+                .thenReturn(internalComponents("a"))
+                .thenThrow(new MethodeMarkedDeletedException(uuid, type))
+                .thenThrow(new MethodeArticleNotEligibleForPublishException(uuid))
+                .thenThrow(new TransformationException("failed"));
+
+        MapResource batchResource = new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 1);
+        StreamingOutput output = batchResource.mapBatch(true, ndjson(eomFileJson("a"), eomFileJson("b"), eomFileJson("c"), eomFileJson("d")), httpHeaders);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        output.write(response);
+        List<JsonNode> lines = lines(response);
+
+        assertThat(lines.size(), equalTo(4));
+        assertThat(statusOf(lines, 0), equalTo(HttpStatus.SC_OK));
+        assertThat(statusOf(lines, 1), equalTo(HttpStatus.SC_NOT_FOUND));
+        assertThat(statusOf(lines, 2), equalTo(HttpStatus.SC_UNPROCESSABLE_ENTITY));
+        assertThat(statusOf(lines, 3), equalTo(HttpStatus.SC_INTERNAL_SERVER_ERROR));
+        assertThat(lines.get(3).get("uuid").asText(), equalTo("d"));
+    }
+
+    @Test
+    public void thatBatchItemsAreMappedConcurrently() throws Exception {
+        CountDownLatch secondMapped = new CountDownLatch(1);
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false))).thenAnswer(invocation -> {
+            String itemUuid = ((EomFile) invocation.getArguments()[0]).getUuid();
+            if ("a".equals(itemUuid)) {
+                assertThat(secondMapped.await(5, TimeUnit.SECONDS), equalTo(true));
+            } else {
+                secondMapped.countDown();
+            }
+            return internalComponents(itemUuid);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<JsonNode> lines = mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, executor, 2),
+                    ndjson(eomFileJson("a"), eomFileJson("b")));
+
+            // "a" is only mapped once "b" has been, which needs a second item in flight
+            assertThat(lines.size(), equalTo(2));
+            assertThat(statusOf(lines, 0), equalTo(HttpStatus.SC_OK));
+            assertThat(statusOf(lines, 1), equalTo(HttpStatus.SC_OK));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void thatItemsReadAfterTheExecutorIsStoppedAreUnavailable() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false)))
+                .thenReturn(internalComponents("a"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        byte[] rest = ("\n" + eomFileJson("b") + "\n" + eomFileJson("c")).getBytes(StandardCharsets.UTF_8);
+        // the executor is stopped once "a" has been submitted, as soon as the rest of the batch is read
+        InputStream request = new SequenceInputStream(ndjson(eomFileJson("a")), new ByteArrayInputStream(rest) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                executor.shutdown();
+                return super.read(buffer, offset, length);
+            }
+        });
+        try {
+            List<JsonNode> lines = mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, executor, 4), request);
+
+            assertThat(lines.size(), equalTo(3));
+            assertThat(statusOf(lines, 0), equalTo(HttpStatus.SC_OK));
+            assertThat(statusOf(lines, 1), equalTo(HttpStatus.SC_SERVICE_UNAVAILABLE));
+            assertThat(statusOf(lines, 2), equalTo(HttpStatus.SC_SERVICE_UNAVAILABLE));
+            verify(internalComponentsMapper, times(1)).map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatMalformedBatchAnswersItemsReadSoFarThenBadRequest() throws Exception {
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false)))
+                .thenReturn(internalComponents("a"));
+
+        List<JsonNode> lines = mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 4),
+                "[" + eomFileJson("a") + ", {\"uuid\": ");
+
+        assertThat(lines.size(), equalTo(2));
+        assertThat(statusOf(lines, 0), equalTo(HttpStatus.SC_OK));
+        assertThat(lines.get(1).get("status").asInt(), equalTo(HttpStatus.SC_BAD_REQUEST));
+        assertThat(lines.get(1).has("index"), equalTo(false));
+    }
+
+    @Test
+    public void thatEmptyBatchAnswersNothing() throws Exception {
+        assertThat(mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 4), "[]").size(), equalTo(0));
+        assertThat(mapBatch(new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 4), "").size(), equalTo(0));
+    }
+
+    @Test
+    public void thatLongReadIsStreamedWithoutCopyingItsBody() throws Exception {
+        String body = longReadBody(500 * 1024);
+        when(internalComponentsMapper.map(any(EomFile.class), eq(TRANSACTION_ID), any(), eq(false)))
+                .thenReturn(InternalComponents.builder().withUuid("a").withXMLBody(body).build());
+        MapResource batchResource = new MapResource(internalComponentsMapper, OBJECT_MAPPER, null, 1);
+        CountingOutputStream response = new CountingOutputStream(ByteStreams.nullOutputStream());
+
+        // warm up, so that class loading and Jackson's serializer caches are not counted
+        batchResource.mapBatch(false, ndjson(eomFileJson("a")), httpHeaders).write(response);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        batchResource.mapBatch(false, ndjson(eomFileJson("a")), httpHeaders).write(response);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(response.getCount() > 2L * body.length(), equalTo(true));
+        assertThat("allocated " + allocated + " bytes to write a " + body.length() + " character body",
+                allocated < body.length() / 4, equalTo(true));
+    }
+
+    private static String longReadBody(int length) {
+        StringBuilder body = new StringBuilder("<body>");
+        while (body.length() < length) {
+            body.append("<p>A paragraph of a long read, with <a href=\"https://www.ft.com/content/a\">a link</a>.</p>");
+        }
+        return body.append("</body>").toString();
+    }
+
+    private List<JsonNode> mapBatch(MapResource batchResource, String request) throws IOException {
+        return mapBatch(batchResource, new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<JsonNode> mapBatch(MapResource batchResource, InputStream request) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        batchResource.mapBatch(false, request, httpHeaders).write(response);
+        return lines(response);
+    }
+
+    private static List<JsonNode> lines(ByteArrayOutputStream response) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.toString(StandardCharsets.UTF_8.name()).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(OBJECT_MAPPER.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private static int statusOf(List<JsonNode> lines, int index) {
+        for (JsonNode line : lines) {
+            if (line.has("index") && line.get("index").asInt() == index) {
+                return line.get("status").asInt();
+            }
+        }
+        throw new AssertionError("No line for index " + index);
+    }
+
+    private static InputStream ndjson(String... eomFiles) {
+        return new ByteArrayInputStream(String.join("\n", eomFiles).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String eomFileJson(String uuid) {
+        return "{\"uuid\":\"" + uuid + "\",\"type\":\"EOM::CompoundStory\",\"value\":\"PGRvYy8+\",\"attributes\":\"<ObjectMetadata/>\"}";
+    }
+
+    private static InternalComponents internalComponents(String uuid) {
+        return InternalComponents.builder().withUuid(uuid).build();
+    }
 }
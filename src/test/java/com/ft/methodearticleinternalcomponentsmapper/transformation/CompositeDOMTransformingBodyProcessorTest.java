@@ -0,0 +1,80 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import com.ft.bodyprocessing.xml.dom.DOMTransformingBodyProcessor;
+import com.ft.bodyprocessing.xml.dom.XPathHandler;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.util.Map;
+
+import static com.ft.common.FileUtils.readFile;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CompositeDOMTransformingBodyProcessorTest {
+
+    private static final BodyProcessingContext BODY_PROCESSING_CONTEXT = new BodyProcessingContext() {
+    };
+
+    private static final Map<String, XPathHandler> XPATH_HANDLERS = ImmutableMap.of("//company", (document, nodes) -> {
+        for (int i = nodes.getLength() - 1; i >= 0; i--) {
+            Element company = (Element) nodes.item(i);
+            Element concept = document.createElement("concept");
+            concept.setAttribute("id", company.getAttribute("CompositeId"));
+            concept.setTextContent(company.getTextContent());
+            company.getParentNode().replaceChild(concept, company);
+        }
+    });
+
+    private final BodyProcessor separateStages = new BodyProcessorChain(asList(
+            new DOMTransformingBodyProcessor(XPATH_HANDLERS),
+            new ImageExtractorBodyProcessor(),
+            new PromoBoxExtractorBodyProcessor(),
+            new DynamicContentExtractorBodyProcessor()
+    ));
+
+    private final BodyProcessor compositeStage = new CompositeDOMTransformingBodyProcessor(
+            new XPathHandlersDocumentTransformer(XPATH_HANDLERS),
+            new ImageExtractorBodyProcessor(),
+            new PromoBoxExtractorBodyProcessor(),
+            new DynamicContentExtractorBodyProcessor()
+    );
+
+    @Test
+    public void shouldMatchSeparateStagesForKitchenSinkArticle() {
+        assertSameOutput(readFile("body/kitchen_sink_article_body.xml"));
+    }
+
+    @Test
+    public void shouldMatchSeparateStagesForEmbeddedImageSet() {
+        assertSameOutput(readFile("body/embedded_image_set_body.xml"));
+    }
+
+    @Test
+    public void shouldMatchSeparateStagesWhenEveryTransformerApplies() {
+        assertSameOutput("<body>" +
+                "<p>Shares in <company CompositeId=\"TME-1\">Acme</company> rose.<image-set id=\"1\"/> Text</p>" +
+                "<p><a href=\"http://www.ft.com\"> <img src=\"http://im.ft.com/1.jpg\"/> </a>caption &amp; more</p>" +
+                "<p><a href=\"http://www.ft.com\"><img src=\"\"/></a><img/>After</p>" +
+                "<p>Before<promo-box align=\"left\"><promo-title><p>In depth</p></promo-title></promo-box>After</p>" +
+                "<p><a type=\"DynamicContent\" dtxInsert=\"Dynamic\" href=\"/FT/Content/Dynamic.xml?uuid=d02886fc-58ff-11e8-9859-6668838a4c10\"></a>Text</p>" +
+                "<p><![CDATA[<kept>]]><!-- comment --></p>" +
+                "</body>");
+    }
+
+    @Test
+    public void shouldReturnBlankBodyUnchanged() {
+        assertThat(compositeStage.process(" ", BODY_PROCESSING_CONTEXT), is(equalTo(" ")));
+    }
+
+    private void assertSameOutput(String body) {
+        assertThat(compositeStage.process(body, BODY_PROCESSING_CONTEXT),
+                is(equalTo(separateStages.process(body, BODY_PROCESSING_CONTEXT))));
+    }
+}
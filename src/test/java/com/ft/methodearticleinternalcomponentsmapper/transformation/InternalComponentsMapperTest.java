@@ -15,6 +15,7 @@ import com.ft.methodearticleinternalcomponentsmapper.model.Design;
 import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
 import com.ft.methodearticleinternalcomponentsmapper.model.Image;
 import com.ft.methodearticleinternalcomponentsmapper.model.InternalComponents;
+import com.ft.methodearticleinternalcomponentsmapper.model.ParsedEomFile;
 import com.ft.methodearticleinternalcomponentsmapper.validation.MethodeArticleValidator;
 import com.ft.methodearticleinternalcomponentsmapper.validation.PublishingStatus;
 import com.samskivert.mustache.Mustache;
@@ -29,6 +30,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.is;
@@ -42,9 +47,11 @@ import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -86,6 +93,8 @@ public class InternalComponentsMapperTest {
     private DocumentStoreApiClient documentStoreApiClient;
 
     private MethodeArticleValidator methodeArticleValidator;
+    private Html5SelfClosingTagBodyProcessor htmlFieldProcessor;
+    private Map<String, MethodeArticleValidator> articleValidators;
 
     private InternalComponentsMapper internalComponentsMapper;
 
@@ -117,14 +126,14 @@ public class InternalComponentsMapperTest {
         blogUuidResolver = mock(BlogUuidResolver.class);
         when(blogUuidResolver.resolveUuid("http://ftalphaville.ft.com/?p=2193913", "2193913", TX_ID)).thenReturn(BLOG_UUID);
 
-        Html5SelfClosingTagBodyProcessor htmlFieldProcessor = spy(new Html5SelfClosingTagBodyProcessor());
+        htmlFieldProcessor = spy(new Html5SelfClosingTagBodyProcessor());
 
         methodeArticleValidator = mock(MethodeArticleValidator.class);
         MethodeArticleValidator methodeContentPlaceholderValidator = mock(MethodeArticleValidator.class);
         when(methodeArticleValidator.getPublishingStatus(any(), any(), anyBoolean())).thenReturn(PublishingStatus.VALID);
         when(methodeContentPlaceholderValidator.getPublishingStatus(any(), any(), anyBoolean())).thenReturn(PublishingStatus.VALID);
 
-        Map<String, MethodeArticleValidator> articleValidators = new HashMap<>();
+        articleValidators = new HashMap<>();
         articleValidators.put(InternalComponentsMapper.SourceCode.FT, methodeArticleValidator);
         articleValidators.put(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER, methodeContentPlaceholderValidator);
         articleValidators.put(InternalComponentsMapper.SourceCode.DYNAMIC_CONTENT, methodeArticleValidator);
@@ -438,6 +447,116 @@ public class InternalComponentsMapperTest {
         internalComponentsMapper.map(eomFile, TX_ID, LAST_MODIFIED, false);
     }
 
+    @Test
+    public void thatPublishingStatusIsRetrievedWhileBodyIsTransformed() throws Exception {
+        CountDownLatch bodyTransformationStarted = new CountDownLatch(1);
+        when(bodyTransformer.transform(anyString(), anyString(), anyVararg())).thenAnswer(invocation -> {
+            bodyTransformationStarted.countDown();
+            return TRANSFORMED_BODY;
+        });
+        when(methodeArticleValidator.getPublishingStatus(any(), any(), anyBoolean())).thenAnswer(invocation ->
+                bodyTransformationStarted.await(5, TimeUnit.SECONDS) ? PublishingStatus.VALID : PublishingStatus.INELIGIBLE);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            InternalComponents actual = parallelMapper(executor).map(eomFile, TX_ID, LAST_MODIFIED, false);
+
+            assertThat(actual.getBodyXML(), equalTo(TRANSFORMED_BODY));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = MethodeMarkedDeletedException.class)
+    public void thatArticleMarkedAsDeletedThrowsExceptionWhenBodyTransformationFailsInParallelMode() {
+        when(bodyTransformer.transform(anyString(), anyString(), anyVararg())).thenThrow(new TransformationException("failed"));
+        when(methodeArticleValidator.getPublishingStatus(any(), any(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return PublishingStatus.DELETED;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            parallelMapper(executor).map(eomFile, TX_ID, LAST_MODIFIED, false);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatAttributesAreStreamedOnceForSourceCodeAndFlags() throws Exception {
+        eomFile = createEomFile(valuePlaceholdersValues, attributesPlaceholdersValues);
+        ParsedEomFile parsedEomFile = spy(new ParsedEomFile(eomFile));
+
+        internalComponentsMapper.map(parsedEomFile, TX_ID, LAST_MODIFIED, false);
+
+        verify(parsedEomFile, never()).getSourceCode();
+        verify(parsedEomFile).getEomFileAttributes();
+    }
+
+    @Test(expected = MethodeMarkedDeletedException.class)
+    public void thatDeletedContentPlaceholderUuidIsNotResolved() {
+        attributesPlaceholdersValues.put("originalUUID", BLOG_UUID);
+        attributesPlaceholdersValues.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+        eomFile = createEomFile(valuePlaceholdersValues, attributesPlaceholdersValues);
+        when(articleValidators.get(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER).getPublishingStatus(any(), any(), any()))
+                .thenReturn(PublishingStatus.DELETED);
+
+        try {
+            internalComponentsMapper.map(eomFile, TX_ID, LAST_MODIFIED, false);
+        } finally {
+            verifyZeroInteractions(documentStoreApiClient, blogUuidResolver);
+        }
+    }
+
+    @Test
+    public void thatContentPlaceholderUuidIsResolvedWhileFieldsAreExtracted() throws Exception {
+        attributesPlaceholdersValues.put("originalUUID", BLOG_UUID);
+        attributesPlaceholdersValues.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+        valuePlaceholdersValues.put("summary", true);
+        valuePlaceholdersValues.put("displayPosition", "auto");
+        eomFile = createEomFile(valuePlaceholdersValues, attributesPlaceholdersValues);
+
+        CountDownLatch uuidResolutionStarted = new CountDownLatch(1);
+        when(documentStoreApiClient.isUUIDPresent(BLOG_UUID, TX_ID)).thenAnswer(invocation -> {
+            uuidResolutionStarted.countDown();
+            return true;
+        });
+        when(bodyTransformer.transform(anyString(), anyString(), anyVararg())).thenAnswer(invocation ->
+                uuidResolutionStarted.await(5, TimeUnit.SECONDS) ? TRANSFORMED_BODY : "");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            InternalComponents actual = parallelMapper(executor).map(eomFile, TX_ID, LAST_MODIFIED, false);
+
+            assertThat(actual.getUuid(), equalTo(BLOG_UUID));
+            assertThat(actual.getSummary().getBodyXML(), equalTo(TRANSFORMED_BODY));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = MethodeArticleNotEligibleForPublishException.class)
+    public void thatIneligibleContentPlaceholderThrowsExceptionWhenUuidResolutionFailsInParallelMode() {
+        attributesPlaceholdersValues.put("originalUUID", BLOG_UUID);
+        attributesPlaceholdersValues.put("sourceCode", InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER);
+        eomFile = createEomFile(valuePlaceholdersValues, attributesPlaceholdersValues);
+
+        when(documentStoreApiClient.isUUIDPresent(BLOG_UUID, TX_ID)).thenThrow(new DocumentStoreApiException("Failed to call document store"));
+        when(articleValidators.get(InternalComponentsMapper.SourceCode.CONTENT_PLACEHOLDER).getPublishingStatus(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(50);
+                    return PublishingStatus.INELIGIBLE;
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            parallelMapper(executor).map(eomFile, TX_ID, LAST_MODIFIED, false);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testDesignThemeFromOldSource() {
         final String oldDesignTheme = "extra";
@@ -841,6 +960,10 @@ public class InternalComponentsMapperTest {
         assertThat(actual.getPushNotificationsText(), equalTo(expectedPushNotificationsText));
     }
 
+    private InternalComponentsMapper parallelMapper(ExecutorService executor) {
+        return new InternalComponentsMapper(bodyTransformer, htmlFieldProcessor, blogUuidResolver, documentStoreApiClient, articleValidators, API_HOST, executor);
+    }
+
     private EomFile createEomFile(Map<String, Object> valuePlaceholdersValues,
                                   Map<String, Object> attributesPlaceholdersValues) {
         return new EomFile.Builder()
@@ -0,0 +1,84 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.xml.eventhandlers.RetainXMLEventHandler;
+import com.ft.bodyprocessing.xml.eventhandlers.SimpleTransformTagXmlEventHandler;
+import com.ft.bodyprocessing.xml.eventhandlers.StripElementAndContentsXMLEventHandler;
+import com.ft.bodyprocessing.xml.eventhandlers.XMLEventHandlerRegistry;
+import org.junit.Test;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.StringReader;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class NestedContentXMLEventProcessorTest {
+
+    private final NestedContentXMLEventProcessor processor = new NestedContentXMLEventProcessor(new QuoteRegistry());
+    private final BodyProcessingContext bodyProcessingContext = mock(BodyProcessingContext.class);
+
+    @Test
+    public void thatContentIsTransformedAndReaderIsLeftAfterTheElement() throws Exception {
+        XMLEventReader reader = readerAtStartOf("quote", "<body><quote><p>Some <b>bold</b> text</p></quote><p>after</p></body>");
+
+        String content = processor.process(reader, bodyProcessingContext);
+
+        assertThat(content, equalTo("<p>Some <strong>bold</strong> text</p>"));
+        assertThat(reader.nextEvent().asStartElement().getName().getLocalPart(), equalTo("p"));
+        assertThat(reader.nextEvent().asCharacters().getData(), equalTo("after"));
+    }
+
+    @Test
+    public void thatElementOfTheSameNameNestedInsideIsKept() throws Exception {
+        XMLEventReader reader = readerAtStartOf("quote", "<body><quote>outer <quote>inner</quote> more</quote><p>after</p></body>");
+
+        String content = processor.process(reader, bodyProcessingContext);
+
+        assertThat(content, equalTo("outer <quote>inner</quote> more"));
+        assertThat(reader.nextEvent().asStartElement().getName().getLocalPart(), equalTo("p"));
+    }
+
+    @Test
+    public void thatHandlerReadingAheadStopsAtTheEndOfTheElement() throws Exception {
+        XMLEventReader reader = readerAtStartOf("quote", "<body><quote><drop><p>gone</p></drop>kept</quote><p>after</p></body>");
+
+        String content = processor.process(reader, bodyProcessingContext);
+
+        assertThat(content, equalTo("kept"));
+        assertThat(reader.nextEvent().asStartElement().getName().getLocalPart(), equalTo("p"));
+    }
+
+    @Test
+    public void thatBlankContentIsEmpty() throws Exception {
+        XMLEventReader reader = readerAtStartOf("quote", "<body><quote>\n\t<drop>gone</drop>\n</quote></body>");
+
+        assertThat(processor.process(reader, bodyProcessingContext), equalTo(""));
+        assertThat(reader.nextEvent().asEndElement().getName().getLocalPart(), equalTo("body"));
+    }
+
+    private static XMLEventReader readerAtStartOf(String elementName, String xml) throws XMLStreamException {
+        XMLEventReader reader = XMLInputFactory.newInstance().createXMLEventReader(new StringReader(xml));
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement() && elementName.equals(event.asStartElement().getName().getLocalPart())) {
+                return reader;
+            }
+        }
+        throw new IllegalArgumentException("no " + elementName + " in " + xml);
+    }
+
+    private static class QuoteRegistry extends XMLEventHandlerRegistry {
+
+        QuoteRegistry() {
+            registerDefaultEventHandler(new RetainXMLEventHandler());
+            registerCharactersEventHandler(new RetainXMLEventHandler());
+            registerStartAndEndElementEventHandler(new SimpleTransformTagXmlEventHandler("strong"), "b");
+            registerStartElementEventHandler(new StripElementAndContentsXMLEventHandler(), "drop");
+        }
+    }
+}
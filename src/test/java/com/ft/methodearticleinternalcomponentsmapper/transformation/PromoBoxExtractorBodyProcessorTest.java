@@ -216,4 +216,11 @@ public class PromoBoxExtractorBodyProcessorTest {
         String result = promoBoxExtractorBodyProcessor.process(body, bodyProcessingContext);
         assertThat(result, is(identicalXmlTo(expected)));
     }
+
+    @Test
+    public void testProcess_LeavesUnparseableBodyAsItIs() {
+        String body = "<body><p>An unclosed paragraph<promo-box align=\"left\">In depth</promo-box></body>";
+
+        assertThat(promoBoxExtractorBodyProcessor.process(body, bodyProcessingContext), is(body));
+    }
 }
@@ -0,0 +1,107 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessor;
+import com.ft.bodyprocessing.BodyProcessorChain;
+import com.ft.bodyprocessing.regex.RegexRemoverBodyProcessor;
+import com.ft.bodyprocessing.regex.RegexReplacerBodyProcessor;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.ft.common.FileUtils.readFile;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks the cleanup stages in {@link BodyProcessingFieldTransformerFactory} give exactly the same output as the
+ * chains of regex body processors they replace.
+ */
+public class RegexCleanupBodyProcessorTest {
+
+    private static final BodyProcessingContext BODY_PROCESSING_CONTEXT = new BodyProcessingContext() {
+    };
+
+    private static final String[] FRAGMENTS = {
+            "<p>", "</p>", "<p class=\"x\">", "<li>", "</li>", "<h2>", "</h2>", "<ul>", "</ul>", "<ul class=\"y\">",
+            "<em>", "</em>", "<strong>", "</strong>", "<span>", "</span>", "<b>", "</b>", "<caption>", "</caption>",
+            "<br/>", "<br />", " ", "  ", "\n", "\r\n", "\t", ".", ". ", "-", "--", "text", "a/b", "&amp;"
+    };
+
+    private final BodyProcessor emptyElementsChain = new BodyProcessorChain(asList(
+            new RegexRemoverBodyProcessor("<em>\\s*</em>"),
+            new RegexRemoverBodyProcessor("<strong>\\s*</strong>"),
+            new RegexRemoverBodyProcessor("<span>\\s*</span>"),
+            new RegexRemoverBodyProcessor("<b>\\s*</b>"),
+            new RegexRemoverBodyProcessor("<(p|li|h[1-6])[^/>]*>(\\s|(<br\\s*/>))*</(p|li|h[1-6])>"),
+            new RegexRemoverBodyProcessor("<ul[^/]*>\\s*</ul>"),
+            new RegexRemoverBodyProcessor("<caption>\\s*</caption>")
+    ));
+
+    private final BodyProcessor punctuationAndParagraphsChain = new BodyProcessorChain(asList(
+            new RegexReplacerBodyProcessor("\\.\\s*\\.\\s*\\.\\s*", "…"),
+            new RegexReplacerBodyProcessor("---", "—"),
+            new RegexReplacerBodyProcessor("--", "–"),
+            new RegexReplacerBodyProcessor("</p>(\\s*<br\\s*/>\\s*)*<p>", "</p><p>"),
+            new RegexRemoverBodyProcessor("(<p>)(\\s|(<br\\s*/>))*(</p>)"),
+            new RegexReplacerBodyProcessor("</p>(\\r?\\n)+<p>", "</p>" + System.lineSeparator() + "<p>"),
+            new RegexReplacerBodyProcessor("</p> +<p>", "</p><p>")
+    ));
+
+    private final BodyProcessor emptyElementsCleanup = BodyProcessingFieldTransformerFactory.emptyElementsRemovingBodyProcessor();
+    private final BodyProcessor punctuationAndParagraphsCleanup = BodyProcessingFieldTransformerFactory.punctuationAndParagraphsCleanupBodyProcessor();
+
+    @Test
+    public void shouldMatchChainsForKitchenSinkArticle() {
+        assertSameOutput(readFile("body/kitchen_sink_article_body.xml"));
+        assertSameOutput(readFile("body/expected_transformed_kitchen_sink_article_body.xml"));
+    }
+
+    @Test
+    public void shouldMatchChainsWhenRemovalCreatesMatchForLaterRule() {
+        assertSameOutput("<body><span><em> </em></span><p><b></b></p><ul><li><strong>\n</strong></li></ul></body>");
+        assertSameOutput("<body><em><span> </span></em><p><em></em><br/></p></body>");
+        assertSameOutput("<body><p>One</p>\n<p><br/></p>\n<p>Two</p> <p>Three</p><br/><p>Four</p></body>");
+    }
+
+    @Test
+    public void shouldMatchChainsForPunctuation() {
+        assertSameOutput("<body><p>Wait. . . and -- then --- more-----dashes....</p></body>");
+    }
+
+    @Test
+    public void shouldMatchChainsForRandomBodies() {
+        Random random = new Random(20181018L);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder body = new StringBuilder("<body>");
+            int fragments = random.nextInt(40);
+            for (int j = 0; j < fragments; j++) {
+                body.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameOutput(body.append("</body>").toString());
+        }
+    }
+
+    @Test
+    public void shouldReturnSameBodyWhenNothingMatches() {
+        String body = "<body><p>Nothing to clean up</p></body>";
+
+        assertThat(emptyElementsCleanup.process(body, BODY_PROCESSING_CONTEXT), is(sameInstance(body)));
+    }
+
+    @Test
+    public void shouldReturnNullForNullBody() {
+        assertThat(emptyElementsCleanup.process(null, BODY_PROCESSING_CONTEXT), is(nullValue()));
+    }
+
+    private void assertSameOutput(String body) {
+        assertThat(body, emptyElementsCleanup.process(body, BODY_PROCESSING_CONTEXT),
+                is(equalTo(emptyElementsChain.process(body, BODY_PROCESSING_CONTEXT))));
+        assertThat(body, punctuationAndParagraphsCleanup.process(body, BODY_PROCESSING_CONTEXT),
+                is(equalTo(punctuationAndParagraphsChain.process(body, BODY_PROCESSING_CONTEXT))));
+    }
+}
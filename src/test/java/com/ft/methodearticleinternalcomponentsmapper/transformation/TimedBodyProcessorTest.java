@@ -0,0 +1,73 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.ft.bodyprocessing.BodyProcessingContext;
+import com.ft.bodyprocessing.BodyProcessingException;
+import com.ft.bodyprocessing.BodyProcessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimedBodyProcessorTest {
+
+    private BodyProcessor delegate;
+    private MetricRegistry metrics;
+    private TimedBodyProcessor timedBodyProcessor;
+
+    @Before
+    public void setUp() {
+        delegate = mock(BodyProcessor.class);
+        metrics = new MetricRegistry();
+        timedBodyProcessor = new TimedBodyProcessor(delegate, "test-stage", metrics);
+    }
+
+    @Test
+    public void thatStageIsTimedAndSizesAreRecordedInChars() {
+        when(delegate.process(anyString(), any(BodyProcessingContext.class))).thenReturn("<p>…</p>");
+
+        String actual = timedBodyProcessor.process("<body><p>...</p></body>", null);
+
+        assertThat(actual, equalTo("<p>…</p>"));
+        assertThat(metrics.timer(MetricRegistry.name(TimedBodyProcessor.class, "test-stage")).getCount(), is(1L));
+        assertThat(histogram("input-chars").getSnapshot().getMax(), is(23L));
+        assertThat(histogram("output-chars").getSnapshot().getMax(), is(8L));
+    }
+
+    @Test
+    public void thatFailedStageIsTimed() {
+        when(delegate.process(anyString(), any(BodyProcessingContext.class))).thenThrow(new BodyProcessingException("failed"));
+
+        try {
+            timedBodyProcessor.process("<body/>", null);
+            fail("expected BodyProcessingException");
+        } catch (BodyProcessingException e) {
+            // expected
+        }
+
+        assertThat(metrics.timer(MetricRegistry.name(TimedBodyProcessor.class, "test-stage")).getCount(), is(1L));
+        assertThat(histogram("output-chars").getCount(), is(0L));
+    }
+
+    @Test
+    public void thatSizeOfBodyWithUnpairedSurrogateIsRecorded() {
+        String body = "<body><p>\uD83D</p></body>";
+        when(delegate.process(anyString(), any(BodyProcessingContext.class))).thenReturn(body);
+
+        assertThat(timedBodyProcessor.process(body, null), equalTo(body));
+        assertThat(histogram("input-chars").getSnapshot().getMax(), is(21L));
+        assertThat(histogram("output-chars").getSnapshot().getMax(), is(21L));
+    }
+
+    private Histogram histogram(String name) {
+        return metrics.histogram(MetricRegistry.name(TimedBodyProcessor.class, "test-stage", name));
+    }
+}
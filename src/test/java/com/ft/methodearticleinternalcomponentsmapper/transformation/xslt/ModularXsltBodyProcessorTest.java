@@ -0,0 +1,39 @@
+package com.ft.methodearticleinternalcomponentsmapper.transformation.xslt;
+
+import com.ft.bodyprocessing.BodyProcessingException;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ModularXsltBodyProcessorTest {
+
+    private static final String BODY = "<body><p>Text</p><aside>Related</aside></body>";
+
+    private static final XsltFile REMOVE_ASIDE = new XsltFile("aside", stylesheet("<xsl:template match=\"aside\"/>"));
+
+    @Test
+    public void shouldKeepMarkupNotMatchedByAnyTemplate() {
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor();
+
+        assertThat(processor.process(BODY, null), is(equalTo(BODY)));
+    }
+
+    @Test
+    public void shouldApplyTemplatesOnEveryCall() {
+        ModularXsltBodyProcessor processor = new ModularXsltBodyProcessor(REMOVE_ASIDE);
+
+        assertThat(processor.process(BODY, null), is(equalTo("<body><p>Text</p></body>")));
+        assertThat(processor.process(BODY, null), is(equalTo("<body><p>Text</p></body>")));
+    }
+
+    @Test(expected = BodyProcessingException.class)
+    public void shouldFailOnConstructionIfTemplatesDoNotCompile() {
+        new ModularXsltBodyProcessor(new XsltFile("aside", "<xsl:stylesheet"));
+    }
+
+    private static String stylesheet(String templates) {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">" + templates + "</xsl:stylesheet>";
+    }
+}
@@ -0,0 +1,97 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFileAttributes;
+import com.samskivert.mustache.Mustache;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.ft.common.FileUtils.readFile;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EomFileAttributesSnifferTest {
+
+    private static final String CONTENT_PACKAGE_XPATH = "/ObjectMetadata/OutputChannels/DIFTcom/isContentPackage";
+
+    @Test
+    public void thatValuesAreTheSameAsThoseOfTheXPaths() throws Exception {
+        String[] sourceCodes = {"FT", "ContentPlaceholder", "DynamicContent", "wibble", ""};
+        String[] flags = {null, "true", "false", "False"};
+
+        for (String sourceCode : sourceCodes) {
+            for (String isContentPackage : flags) {
+                for (String overrideOriginal : flags) {
+                    String attributes = attributes(sourceCode, isContentPackage, overrideOriginal);
+                    Document document = parse(attributes);
+                    XPath xpath = XPathFactory.newInstance().newXPath();
+
+                    EomFileAttributes sniffed = EomFileAttributesSniffer.sniff(attributes, true);
+
+                    assertThat(attributes, sniffed.getSourceCode(), equalTo(xpath.evaluate(EomFile.SOURCE_ATTR_XPATH, document)));
+                    assertThat(attributes, sniffed.getIsContentPackage(), equalTo(xpath.evaluate(CONTENT_PACKAGE_XPATH, document)));
+                    assertThat(attributes, sniffed.getOverrideOriginal(), equalTo(xpath.evaluate(EomFile.OVERRIDE_ORIGINAL_ATTR_XPATH, document)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void thatSourceCodeIsFoundUnderNestedEditorialNotes() throws Exception {
+        String attributes = "<ObjectMetadata><Wrapper><EditorialNotes><Sources><Source><SourceCode>FT</SourceCode>"
+                + "</Source></Sources></EditorialNotes></Wrapper></ObjectMetadata>";
+
+        assertThat(EomFileAttributesSniffer.sniff(attributes, false).getSourceCode(), equalTo("FT"));
+    }
+
+    @Test
+    public void thatSourceCodeOutsideItsPathIsIgnored() throws Exception {
+        String attributes = "<ObjectMetadata><Sources><Source><SourceCode>wibble</SourceCode></Source></Sources>"
+                + "<EditorialNotes><Sources><Source><SourceCode>FT</SourceCode></Source></Sources></EditorialNotes>"
+                + "</ObjectMetadata>";
+
+        assertThat(EomFileAttributesSniffer.sniff(attributes, false).getSourceCode(), equalTo("FT"));
+    }
+
+    @Test
+    public void thatFlagsAreNullWhenNotAskedFor() throws Exception {
+        EomFileAttributes sniffed = EomFileAttributesSniffer.sniff(attributes("FT", "true", "true"), false);
+
+        assertThat(sniffed.getSourceCode(), equalTo("FT"));
+        assertThat(sniffed.getIsContentPackage(), nullValue());
+        assertThat(sniffed.getOverrideOriginal(), nullValue());
+    }
+
+    @Test
+    public void thatReadingStopsOnceSourceCodeIsFound() throws Exception {
+        String truncated = "<ObjectMetadata><EditorialNotes><Sources><Source><SourceCode>FT</SourceCode></Source>"
+                + "</Sources></EditorialNotes><OutputChannels><DIFTcom";
+
+        assertThat(EomFileAttributesSniffer.sniff(truncated, false).getSourceCode(), equalTo("FT"));
+    }
+
+    private static String attributes(String sourceCode, String isContentPackage, String overrideOriginal) throws Exception {
+        Map<String, Object> placeholders = new HashMap<>();
+        placeholders.put("sourceCode", sourceCode);
+        placeholders.put("isContentPackage", isContentPackage);
+        placeholders.put("overrideOriginal", overrideOriginal);
+        return Mustache.compiler().escapeHTML(false).defaultValue("")
+                .compile(readFile("article/article_attributes.xml.mustache"))
+                .execute(placeholders);
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+}
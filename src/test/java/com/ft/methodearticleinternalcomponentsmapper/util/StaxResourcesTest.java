@@ -0,0 +1,42 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class StaxResourcesTest {
+
+    @Test
+    public void thatFactoriesAreShared() {
+        assertThat(StaxResources.xmlInputFactory(), sameInstance(StaxResources.xmlInputFactory()));
+        assertThat(StaxResources.xmlOutputFactory(), sameInstance(StaxResources.xmlOutputFactory()));
+    }
+
+    @Test
+    public void thatElementNamesAreInterned() throws Exception {
+        XMLStreamReader reader = StaxResources.xmlInputFactory().createXMLStreamReader(new StringReader("<body><p>text</p></body>"));
+
+        reader.nextTag();
+
+        assertThat(reader.getLocalName(), sameInstance("body"));
+    }
+
+    @Test
+    public void thatExternalDtdIsNotLoaded() throws Exception {
+        XMLStreamReader reader = StaxResources.xmlInputFactory().createXMLStreamReader(
+                new StringReader("<!DOCTYPE body SYSTEM \"http://localhost:1/body.dtd\"><body>text</body>"));
+
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // skip the DTD
+        }
+
+        assertThat(reader.getLocalName(), equalTo("body"));
+        assertThat(reader.getElementText(), equalTo("text"));
+    }
+}
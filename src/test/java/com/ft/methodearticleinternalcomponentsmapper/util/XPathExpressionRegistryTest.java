@@ -0,0 +1,43 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class XPathExpressionRegistryTest {
+
+    private static final String SOURCE_XPATH = "/ObjectMetadata/EditorialNotes/Sources/Source/SourceCode";
+
+    private final XPathExpressionRegistry registry = new XPathExpressionRegistry(SOURCE_XPATH);
+
+    @Test
+    public void shouldEvaluateRegisteredExpression() throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(
+                "<ObjectMetadata><EditorialNotes><Sources><Source><SourceCode>FT</SourceCode></Source></Sources></EditorialNotes></ObjectMetadata>")));
+
+        assertThat(registry.evaluate(SOURCE_XPATH, document), is(equalTo("FT")));
+    }
+
+    @Test
+    public void shouldReuseCompiledExpressionWithinThread() throws Exception {
+        assertThat(registry.get(SOURCE_XPATH), is(sameInstance(registry.get(SOURCE_XPATH))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnregisteredExpression() throws Exception {
+        registry.get("/doc/lead");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailFastOnInvalidExpression() {
+        new XPathExpressionRegistry("/doc/[");
+    }
+}
@@ -0,0 +1,68 @@
+package com.ft.methodearticleinternalcomponentsmapper.util;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class XmlResourcesTest {
+
+    private static final String BODY = "<body><p>Some <b>text</b></p></body>";
+
+    @Test
+    public void thatSerializedDocumentHasNoXmlDeclaration() throws Exception {
+        Document document = XmlResources.parse(BODY);
+
+        assertThat(XmlResources.serialize(document), equalTo(BODY));
+        assertThat(XmlResources.serializeStandalone(document), equalTo(BODY));
+    }
+
+    @Test
+    public void thatNodeIsSerializedOnItsOwn() throws Exception {
+        Document document = XmlResources.parse(BODY);
+
+        assertThat(XmlResources.serialize(document.getElementsByTagName("p").item(0)), equalTo("<p>Some <b>text</b></p>"));
+    }
+
+    @Test
+    public void thatExternalDtdIsNotLoaded() throws Exception {
+        Document document = XmlResources.parse("<!DOCTYPE body SYSTEM \"http://localhost:1/body.dtd\">" + BODY);
+
+        assertThat(document.getDocumentElement().getNodeName(), equalTo("body"));
+    }
+
+    @Test
+    public void thatParserIsUsableAfterAFailure() throws Exception {
+        try {
+            XmlResources.parse("<body><p>unclosed</body>");
+        } catch (SAXException e) {
+            // expected
+        }
+
+        assertThat(XmlResources.serialize(XmlResources.parse(BODY)), equalTo(BODY));
+    }
+
+    @Test
+    public void thatEachThreadParsesAndSerializesIndependently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[100];
+            for (int i = 0; i < results.length; i++) {
+                String body = "<body><p>" + i + "</p></body>";
+                results[i] = executor.submit(() -> XmlResources.serialize(XmlResources.parse(body)));
+            }
+            for (int i = 0; i < results.length; i++) {
+                assertThat(results[i].get(5, TimeUnit.SECONDS), equalTo("<body><p>" + i + "</p></body>"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
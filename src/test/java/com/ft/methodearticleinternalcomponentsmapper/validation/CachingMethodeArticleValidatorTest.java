@@ -0,0 +1,166 @@
+package com.ft.methodearticleinternalcomponentsmapper.validation;
+
+import com.codahale.metrics.MetricRegistry;
+import com.ft.jerseyhttpwrapper.ResilientClient;
+import com.ft.methodearticleinternalcomponentsmapper.configuration.CacheConfiguration;
+import com.ft.methodearticleinternalcomponentsmapper.exception.MethodeArticleMapperUnavailableException;
+import com.ft.methodearticleinternalcomponentsmapper.model.EomFile;
+import com.google.common.base.Ticker;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.MessageBodyWorkers;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingMethodeArticleValidatorTest {
+
+    private static final String TRANSACTION_ID = "tid_test";
+    private static final String UUID = "fbbee07f-5054-4a42-b596-64e0625d19a6";
+    private static final String HOST_HEADER = "methode-article-mapper";
+
+    @Mock
+    private ResilientClient methodeArticleMapperClient;
+    @Mock
+    private WebResource.Builder builder;
+    @Mock
+    private InBoundHeaders headers;
+    @Mock
+    private MessageBodyWorkers workers;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private MetricRegistry metrics;
+    private CachingMethodeArticleValidator validator;
+
+    @Before
+    public void setUp() {
+        WebResource webResource = mock(WebResource.class);
+        when(methodeArticleMapperClient.resource(any(URI.class))).thenReturn(webResource);
+        when(webResource.queryParam(eq("preview"), anyString())).thenReturn(webResource);
+        when(webResource.accept(any(MediaType.class))).thenReturn(builder);
+        when(builder.type(any(MediaType.class))).thenReturn(builder);
+        when(builder.header(anyString(), anyObject())).thenReturn(builder);
+        when(builder.entity(anyObject())).thenReturn(builder);
+        when(builder.post(ClientResponse.class)).thenReturn(clientResponseWithCode(200));
+
+        metrics = new MetricRegistry();
+        validator = new CachingMethodeArticleValidator(
+                methodeArticleMapperClient,
+                URI.create("http://localhost:8080/__methode-article-mapper/map"),
+                HOST_HEADER,
+                new CacheConfiguration(100, Duration.seconds(30), null),
+                metrics,
+                ticker);
+    }
+
+    @Test
+    public void thatDuplicateEventIsNotValidatedAgain() {
+        PublishingStatus first = validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+        PublishingStatus second = validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), "tid_other", false);
+
+        assertThat(first, is(PublishingStatus.VALID));
+        assertThat(second, is(PublishingStatus.VALID));
+        verify(builder, times(1)).post(ClientResponse.class);
+        assertThat(meter("cache-hits"), is(1L));
+        assertThat(meter("cache-misses"), is(1L));
+    }
+
+    @Test
+    public void thatChangedValueOrAttributesAreValidatedAgain() {
+        validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+        validator.getPublishingStatus(eomFile("<doc>two</doc>", "FT"), TRANSACTION_ID, false);
+        validator.getPublishingStatus(eomFile("<doc>two</doc>", "ContentPlaceholder"), TRANSACTION_ID, false);
+
+        verify(builder, times(3)).post(ClientResponse.class);
+    }
+
+    @Test
+    public void thatPreviewIsValidatedSeparately() {
+        validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+        validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, true);
+        validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, null);
+
+        verify(builder, times(3)).post(ClientResponse.class);
+    }
+
+    @Test
+    public void thatDecisionExpiresAfterTtl() {
+        when(builder.post(ClientResponse.class))
+                .thenReturn(clientResponseWithCode(200))
+                .thenReturn(clientResponseWithCode(404));
+
+        validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30) + 1);
+        PublishingStatus actual = validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+
+        assertThat(actual, is(PublishingStatus.DELETED));
+        verify(builder, times(2)).post(ClientResponse.class);
+    }
+
+    @Test
+    public void thatFailureIsNotCached() {
+        when(builder.post(ClientResponse.class))
+                .thenReturn(clientResponseWithCode(503))
+                .thenReturn(clientResponseWithCode(422));
+
+        try {
+            validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+            fail("expected MethodeArticleMapperUnavailableException");
+        } catch (MethodeArticleMapperUnavailableException e) {
+            // expected
+        }
+        PublishingStatus actual = validator.getPublishingStatus(eomFile("<doc>one</doc>", "FT"), TRANSACTION_ID, false);
+
+        assertThat(actual, is(PublishingStatus.INELIGIBLE));
+    }
+
+    private long meter(String name) {
+        return metrics.meter(MetricRegistry.name(CachingMethodeArticleValidator.class, HOST_HEADER, name)).getCount();
+    }
+
+    private static EomFile eomFile(String value, String sourceCode) {
+        return new EomFile.Builder()
+                .withUuid(UUID)
+                .withType("EOM::CompoundStory")
+                .withValue(value.getBytes(StandardCharsets.UTF_8))
+                .withAttributes("<ObjectMetadata><EditorialNotes><Sources><Source><SourceCode>" + sourceCode
+                        + "</SourceCode></Source></Sources></EditorialNotes></ObjectMetadata>")
+                .withWorkflowStatus("Stories/WebReady")
+                .build();
+    }
+
+    private ClientResponse clientResponseWithCode(int status) {
+        return new ClientResponse(status, headers, new ByteArrayInputStream(new byte[0]), workers);
+    }
+}